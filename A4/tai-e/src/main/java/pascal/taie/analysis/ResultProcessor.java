@@ -27,6 +27,8 @@ import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
@@ -169,7 +171,13 @@ public class ResultProcessor extends ProgramAnalysis {
         };
         CallGraph<?, JMethod> cg = World.get().getResult(CallGraphBuilder.ID);
         Stream<JMethod> methods;
-        if (cg.getNumberOfMethods() == 0) {
+        if (World.get().getResult(ICFGBuilder.ID) instanceof LazyICFG icfg) {
+            // The ICFG is built on demand, thus only the methods reached
+            // by the analysis are materialized and have results.
+            methods = icfg.materializedMethods()
+                    .filter(m -> m.getDeclaringClass().isApplication())
+                    .sorted(comp);
+        } else if (cg.getNumberOfMethods() == 0) {
             // Before the call graph construction has been implemented,
             // there are no methods in the call graph. In this case,
             // we compare the results for all application methods.
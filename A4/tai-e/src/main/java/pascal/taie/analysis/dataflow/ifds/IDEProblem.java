@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Template interface for defining IDE (interprocedural distributive
+ * environment) problems. In addition to the flow functions of
+ * {@link IFDSProblem}, an IDE problem associates each exploded edge
+ * (source fact -&gt; target fact) with an {@link EdgeFunction} over
+ * the value lattice.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public interface IDEProblem<Node, D, V> extends IFDSProblem<Node, D> {
+
+    /**
+     * @return the top value of the value lattice.
+     */
+    V topValue();
+
+    /**
+     * @return the bottom value of the value lattice.
+     */
+    V bottomValue();
+
+    /**
+     * Meets two values.
+     */
+    V meetValue(V v1, V v2);
+
+    /**
+     * @return the function that maps all values to top.
+     */
+    EdgeFunction<V> allTop();
+
+    /**
+     * @return the identity function.
+     */
+    EdgeFunction<V> identity();
+
+    EdgeFunction<V> getNormalEdgeFunction(NormalEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getCallToReturnEdgeFunction(CallToReturnEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getCallEdgeFunction(CallEdge<Node> edge, D source, D target);
+
+    EdgeFunction<V> getReturnEdgeFunction(ReturnEdge<Node> edge, D source, D target);
+}
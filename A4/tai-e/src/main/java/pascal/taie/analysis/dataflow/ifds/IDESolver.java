@@ -0,0 +1,315 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Solver for {@link IDEProblem}s, which implements the two-phase
+ * algorithm of Sagiv, Reps and Horwitz on {@link ICFG}.
+ * <p>
+ * Phase I extends the tabulation algorithm of {@link IFDSSolver} by
+ * attaching an {@link EdgeFunction} to each jump function and end summary.
+ * Phase II first propagates values to method entries through call edges,
+ * and then computes the values at all nodes by applying jump functions
+ * to the values at the entries. Each method is thus analyzed once per
+ * entry fact, regardless of the number of its calling contexts.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values
+ */
+public class IDESolver<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final D zero;
+
+    /**
+     * Jump functions. For each node, maps each fact at the node (d2)
+     * and each fact at the entry of its method (d1) to the edge function
+     * of path edge &lt;sp, d1&gt; -&gt; &lt;node, d2&gt;.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> jumpFunctions = Maps.newMap();
+
+    /**
+     * End summaries. For each method, maps each fact at its entry (d1)
+     * and each fact at its exit (d2) to the edge function between them.
+     */
+    private final Map<Method, Map<D, Map<D, EdgeFunction<V>>>> endSummaries = Maps.newMap();
+
+    /**
+     * Incoming table. For each method, maps each fact at its entry to
+     * the (call edge, fact at call site) pairs that bring the fact in.
+     */
+    private final Map<Method, MultiMap<D, Pair<CallEdge<Node>, D>>> incoming = Maps.newMap();
+
+    /**
+     * Call sites reached in each method.
+     */
+    private final MultiMap<Method, Node> callSites = Maps.newMultiMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    /**
+     * Values at method entries, computed in phase II.
+     */
+    private final Map<Node, Map<D, V>> entryValues = Maps.newMap();
+
+    public IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.zero = problem.zeroValue();
+    }
+
+    public IDEResult<Node, D, V> solve() {
+        icfg.entryMethods().forEach(method ->
+                propagate(zero, icfg.getEntryOf(method), zero, problem.identity()));
+        computeJumpFunctions();
+        computeEntryValues();
+        return computeValues();
+    }
+
+    // ---------- Phase I: jump functions and end summaries ----------
+
+    private void computeJumpFunctions() {
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> pathEdge = workList.poll();
+            Node node = pathEdge.node();
+            EdgeFunction<V> f = getJumpFunctions(node, pathEdge.target())
+                    .get(pathEdge.source());
+            if (isExit(node)) {
+                processExit(pathEdge, f);
+                continue;
+            }
+            if (icfg.isCallSite(node)) {
+                callSites.put(icfg.getContainingMethodOf(node), node);
+            }
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                if (edge instanceof NormalEdge<Node> normalEdge) {
+                    FlowFunction<D> flowFunction = problem.getNormalFlowFunction(normalEdge);
+                    for (D d3 : flowFunction.compute(pathEdge.target())) {
+                        propagate(pathEdge.source(), edge.getTarget(), d3, f.composeWith(
+                                problem.getNormalEdgeFunction(normalEdge, pathEdge.target(), d3)));
+                    }
+                } else if (edge instanceof CallToReturnEdge<Node> c2rEdge) {
+                    FlowFunction<D> flowFunction = problem.getCallToReturnFlowFunction(c2rEdge);
+                    for (D d3 : flowFunction.compute(pathEdge.target())) {
+                        propagate(pathEdge.source(), edge.getTarget(), d3, f.composeWith(
+                                problem.getCallToReturnEdgeFunction(c2rEdge, pathEdge.target(), d3)));
+                    }
+                } else if (edge instanceof CallEdge<Node> callEdge) {
+                    processCallEdge(pathEdge, f, callEdge);
+                }
+            }
+        }
+    }
+
+    private void processCallEdge(PathEdge<Node, D> pathEdge, EdgeFunction<V> f,
+                                 CallEdge<Node> edge) {
+        D d2 = pathEdge.target();
+        Node calleeEntry = edge.getTarget();
+        Method callee = icfg.getContainingMethodOf(calleeEntry);
+        FlowFunction<D> flowFunction = problem.getCallFlowFunction(edge);
+        for (D d3 : flowFunction.compute(d2)) {
+            propagate(d3, calleeEntry, d3, problem.identity());
+            incoming.computeIfAbsent(callee, m -> Maps.newMultiMap())
+                    .put(d3, new Pair<>(edge, d2));
+            EdgeFunction<V> fCall = f.composeWith(
+                    problem.getCallEdgeFunction(edge, d2, d3));
+            getTable(endSummaries, callee, d3).forEach((d4, fSummary) ->
+                    applyReturnFlow(callee, edge.getSource(), pathEdge.source(),
+                            d4, fCall.composeWith(fSummary)));
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> pathEdge, EdgeFunction<V> f) {
+        Method method = icfg.getContainingMethodOf(pathEdge.node());
+        D d1 = pathEdge.source();
+        Map<D, EdgeFunction<V>> summaries = getTable(endSummaries, method, d1);
+        EdgeFunction<V> old = summaries.getOrDefault(pathEdge.target(), problem.allTop());
+        EdgeFunction<V> fSummary = old.meetWith(f);
+        if (fSummary.equals(old)) {
+            return;
+        }
+        summaries.put(pathEdge.target(), fSummary);
+        MultiMap<D, Pair<CallEdge<Node>, D>> callers = incoming.get(method);
+        if (callers == null) {
+            return;
+        }
+        for (Pair<CallEdge<Node>, D> caller : callers.get(d1)) {
+            CallEdge<Node> callEdge = caller.first();
+            Node callSite = callEdge.getSource();
+            EdgeFunction<V> fCall = problem.getCallEdgeFunction(
+                    callEdge, caller.second(), d1).composeWith(fSummary);
+            getJumpFunctions(callSite, caller.second()).forEach((d0, fCaller) ->
+                    applyReturnFlow(method, callSite, d0, pathEdge.target(),
+                            fCaller.composeWith(fCall)));
+        }
+    }
+
+    /**
+     * Propagates fact at exit of callee back to the return sites
+     * of the given call site.
+     *
+     * @param callerFact the fact at entry of the caller
+     * @param exitFact   the fact at exit of callee
+     * @param f          edge function from callerFact to exitFact
+     */
+    private void applyReturnFlow(Method callee, Node callSite, D callerFact,
+                                 D exitFact, EdgeFunction<V> f) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(icfg.getExitOf(callee))) {
+            if (edge instanceof ReturnEdge<Node> returnEdge &&
+                    returnEdge.getCallSite().equals(callSite)) {
+                FlowFunction<D> flowFunction = problem.getReturnFlowFunction(returnEdge);
+                for (D d5 : flowFunction.compute(exitFact)) {
+                    propagate(callerFact, returnEdge.getTarget(), d5, f.composeWith(
+                            problem.getReturnEdgeFunction(returnEdge, exitFact, d5)));
+                }
+            }
+        }
+    }
+
+    private void propagate(D source, Node node, D target, EdgeFunction<V> f) {
+        Map<D, EdgeFunction<V>> functions = getJumpFunctions(node, target);
+        EdgeFunction<V> old = functions.getOrDefault(source, problem.allTop());
+        EdgeFunction<V> newFunction = old.meetWith(f);
+        if (!functions.containsKey(source) || !newFunction.equals(old)) {
+            functions.put(source, newFunction);
+            workList.add(new PathEdge<>(source, node, target));
+        }
+    }
+
+    private Map<D, EdgeFunction<V>> getJumpFunctions(Node node, D target) {
+        return getTable(jumpFunctions, node, target);
+    }
+
+    private boolean isExit(Node node) {
+        return node.equals(icfg.getExitOf(icfg.getContainingMethodOf(node)));
+    }
+
+    private static <K, T, F> Map<T, F> getTable(
+            Map<K, Map<T, Map<T, F>>> tables, K key, T fact) {
+        return tables.computeIfAbsent(key, k -> Maps.newHybridMap())
+                .computeIfAbsent(fact, d -> Maps.newHybridMap());
+    }
+
+    // ---------- Phase II: values ----------
+
+    /**
+     * Propagates values to the entries of reachable methods.
+     */
+    private void computeEntryValues() {
+        Queue<Pair<Node, D>> entryWorkList = new ArrayDeque<>();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            setEntryValue(entry, zero, problem.bottomValue(), entryWorkList);
+        });
+        while (!entryWorkList.isEmpty()) {
+            Pair<Node, D> pair = entryWorkList.poll();
+            Node entry = pair.first();
+            D d1 = pair.second();
+            V entryValue = getEntryValue(entry, d1);
+            Method method = icfg.getContainingMethodOf(entry);
+            for (Node callSite : callSites.get(method)) {
+                getTable(jumpFunctions, callSite).forEach((d2, functions) -> {
+                    EdgeFunction<V> f = functions.get(d1);
+                    if (f == null) {
+                        return;
+                    }
+                    V callSiteValue = f.computeTarget(entryValue);
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                        if (edge instanceof CallEdge<Node> callEdge) {
+                            for (D d3 : problem.getCallFlowFunction(callEdge).compute(d2)) {
+                                V value = problem.getCallEdgeFunction(callEdge, d2, d3)
+                                        .computeTarget(callSiteValue);
+                                setEntryValue(callEdge.getTarget(), d3, value, entryWorkList);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private V getEntryValue(Node entry, D fact) {
+        return entryValues.getOrDefault(entry, Map.of())
+                .getOrDefault(fact, problem.topValue());
+    }
+
+    private void setEntryValue(Node entry, D fact, V value,
+                               Queue<Pair<Node, D>> entryWorkList) {
+        V old = getEntryValue(entry, fact);
+        V newValue = problem.meetValue(old, value);
+        Map<D, V> values = entryValues.computeIfAbsent(entry, n -> Maps.newHybridMap());
+        if (!values.containsKey(fact) || !newValue.equals(old)) {
+            values.put(fact, newValue);
+            entryWorkList.add(new Pair<>(entry, fact));
+        }
+    }
+
+    /**
+     * Computes values at all nodes by applying jump functions to
+     * the values at method entries.
+     */
+    private IDEResult<Node, D, V> computeValues() {
+        Map<Node, Map<D, V>> values = Maps.newMap();
+        jumpFunctions.forEach((node, table) -> {
+            Node entry = icfg.getEntryOf(icfg.getContainingMethodOf(node));
+            Map<D, V> nodeValues = Maps.newHybridMap();
+            table.forEach((d2, functions) -> {
+                if (d2.equals(zero)) {
+                    return;
+                }
+                V value = problem.topValue();
+                for (Map.Entry<D, EdgeFunction<V>> e : functions.entrySet()) {
+                    value = problem.meetValue(value, e.getValue()
+                            .computeTarget(getEntryValue(entry, e.getKey())));
+                }
+                nodeValues.put(d2, value);
+            });
+            values.put(node, nodeValues);
+        });
+        return new IDEResult<>(values);
+    }
+
+    private static <K, T, F> Map<T, Map<T, F>> getTable(
+            Map<K, Map<T, Map<T, F>>> tables, K key) {
+        return tables.getOrDefault(key, Map.of());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Template interface for defining IFDS (interprocedural, finite,
+ * distributive, subset) problems.
+ * <p>
+ * The flow functions are given per ICFG edge. They are responsible for
+ * propagating the zero value, i.e., every flow function should map
+ * {@link #zeroValue()} to a set that contains the zero value itself
+ * (unless the zero value is intended to be killed on that edge).
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ */
+public interface IFDSProblem<Node, D> {
+
+    /**
+     * @return the special zero (Λ) value, which holds at the entries of
+     * the entry methods and from which the other facts are generated.
+     */
+    D zeroValue();
+
+    /**
+     * @return flow function for the edge connecting nodes in the same method.
+     */
+    FlowFunction<D> getNormalFlowFunction(NormalEdge<Node> edge);
+
+    /**
+     * @return flow function for the edge from a call site to its return site.
+     */
+    FlowFunction<D> getCallToReturnFlowFunction(CallToReturnEdge<Node> edge);
+
+    /**
+     * @return flow function for the edge from a call site to callee entry.
+     */
+    FlowFunction<D> getCallFlowFunction(CallEdge<Node> edge);
+
+    /**
+     * @return flow function for the edge from callee exit to a return site.
+     */
+    FlowFunction<D> getReturnFlowFunction(ReturnEdge<Node> edge);
+}
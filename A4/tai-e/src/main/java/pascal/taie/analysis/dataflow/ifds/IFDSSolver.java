@@ -0,0 +1,216 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Solver for {@link IFDSProblem}s, which implements the tabulation
+ * algorithm of Reps, Horwitz and Sagiv on {@link ICFG}.
+ * <p>
+ * The solver maintains three tables:
+ * <ul>
+ *     <li>jump functions: the path edges discovered so far, i.e.,
+ *     for each node, the facts at the node and the facts at the entry
+ *     of its method from which they are reachable;</li>
+ *     <li>end summaries: for each method, the facts at its exit that are
+ *     reachable from each fact at its entry;</li>
+ *     <li>incoming: for each method and each fact at its entry,
+ *     the call sites (and the facts there) that bring the fact in.</li>
+ * </ul>
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ */
+public class IFDSSolver<Method, Node, D> {
+
+    private final IFDSProblem<Node, D> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final D zero;
+
+    /**
+     * Jump functions. For each node, maps each fact at the node (d2)
+     * to the facts at the entry of its method (d1), such that there is
+     * a path edge &lt;sp, d1&gt; -&gt; &lt;node, d2&gt;.
+     */
+    private final Map<Node, MultiMap<D, D>> jumpFunctions = Maps.newMap();
+
+    /**
+     * End summaries. For each method, maps each fact at its entry
+     * to the facts at its exit.
+     */
+    private final Map<Method, MultiMap<D, D>> endSummaries = Maps.newMap();
+
+    /**
+     * Incoming table. For each method, maps each fact at its entry to
+     * the (call site, fact at call site) pairs that bring the fact in.
+     */
+    private final Map<Method, MultiMap<D, Pair<Node, D>>> incoming = Maps.newMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    public IFDSSolver(IFDSProblem<Node, D> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.zero = problem.zeroValue();
+    }
+
+    public IFDSResult<Node, D> solve() {
+        initialize();
+        doSolve();
+        return collectResult();
+    }
+
+    private void initialize() {
+        icfg.entryMethods().forEach(method ->
+                propagate(zero, icfg.getEntryOf(method), zero));
+    }
+
+    private void doSolve() {
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> pathEdge = workList.poll();
+            Node node = pathEdge.node();
+            if (isExit(node)) {
+                processExit(pathEdge);
+            } else {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (edge instanceof NormalEdge<Node> normalEdge) {
+                        processNormalEdge(pathEdge, normalEdge);
+                    } else if (edge instanceof CallToReturnEdge<Node> callToReturnEdge) {
+                        processCallToReturnEdge(pathEdge, callToReturnEdge);
+                    } else if (edge instanceof CallEdge<Node> callEdge) {
+                        processCallEdge(pathEdge, callEdge);
+                    }
+                }
+            }
+        }
+    }
+
+    private void processNormalEdge(PathEdge<Node, D> pathEdge, NormalEdge<Node> edge) {
+        FlowFunction<D> flowFunction = problem.getNormalFlowFunction(edge);
+        for (D d3 : flowFunction.compute(pathEdge.target())) {
+            propagate(pathEdge.source(), edge.getTarget(), d3);
+        }
+    }
+
+    private void processCallToReturnEdge(PathEdge<Node, D> pathEdge,
+                                         CallToReturnEdge<Node> edge) {
+        FlowFunction<D> flowFunction = problem.getCallToReturnFlowFunction(edge);
+        for (D d3 : flowFunction.compute(pathEdge.target())) {
+            propagate(pathEdge.source(), edge.getTarget(), d3);
+        }
+    }
+
+    private void processCallEdge(PathEdge<Node, D> pathEdge, CallEdge<Node> edge) {
+        Node callSite = pathEdge.node();
+        D d2 = pathEdge.target();
+        Method callee = icfg.getContainingMethodOf(edge.getTarget());
+        FlowFunction<D> flowFunction = problem.getCallFlowFunction(edge);
+        for (D d3 : flowFunction.compute(d2)) {
+            // start analyzing callee from d3
+            propagate(d3, edge.getTarget(), d3);
+            getTable(incoming, callee).put(d3, new Pair<>(callSite, d2));
+            // apply the end summaries of callee that are already known
+            for (D d4 : getTable(endSummaries, callee).get(d3)) {
+                applyReturnFlow(callee, callSite, d4, pathEdge.source());
+            }
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> pathEdge) {
+        Method method = icfg.getContainingMethodOf(pathEdge.node());
+        D d1 = pathEdge.source();
+        D d2 = pathEdge.target();
+        if (getTable(endSummaries, method).put(d1, d2)) {
+            for (Pair<Node, D> pair : getTable(incoming, method).get(d1)) {
+                Node callSite = pair.first();
+                // propagate to return sites for each path edge that
+                // reaches (callSite, pair.second())
+                for (D d0 : getTable(jumpFunctions, callSite).get(pair.second())) {
+                    applyReturnFlow(method, callSite, d2, d0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates fact at exit of callee back to the return sites
+     * of the given call site.
+     *
+     * @param exitFact   the fact at exit of callee
+     * @param callerFact the fact at entry of the caller
+     */
+    private void applyReturnFlow(Method callee, Node callSite,
+                                 D exitFact, D callerFact) {
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(icfg.getExitOf(callee))) {
+            if (edge instanceof ReturnEdge<Node> returnEdge &&
+                    returnEdge.getCallSite().equals(callSite)) {
+                FlowFunction<D> flowFunction = problem.getReturnFlowFunction(returnEdge);
+                for (D d5 : flowFunction.compute(exitFact)) {
+                    propagate(callerFact, returnEdge.getTarget(), d5);
+                }
+            }
+        }
+    }
+
+    private void propagate(D source, Node node, D target) {
+        if (getTable(jumpFunctions, node).put(target, source)) {
+            workList.add(new PathEdge<>(source, node, target));
+        }
+    }
+
+    private boolean isExit(Node node) {
+        return node.equals(icfg.getExitOf(icfg.getContainingMethodOf(node)));
+    }
+
+    private static <K, F, V> MultiMap<F, V> getTable(
+            Map<K, MultiMap<F, V>> tables, K key) {
+        return tables.computeIfAbsent(key, k -> Maps.newMultiMap());
+    }
+
+    private IFDSResult<Node, D> collectResult() {
+        MultiMap<Node, D> facts = Maps.newMultiMap();
+        jumpFunctions.forEach((node, jumpFunction) ->
+                jumpFunction.keySet().forEach(d -> {
+                    if (!d.equals(zero)) {
+                        facts.put(node, d);
+                    }
+                }));
+        return new IFDSResult<>(facts);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.StmtResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+/**
+ * Solves {@link UninitializedVariables} on the ICFG given by
+ * {@link ICFGBuilder}. The result maps each statement to the variables
+ * that may be uninitialized before the statement.
+ */
+public class UninitializedVariableAnalysis extends ProgramAnalysis {
+
+    public static final String ID = "uninit-var";
+
+    public UninitializedVariableAnalysis(AnalysisConfig config) {
+        super(config);
+    }
+
+    @Override
+    public StmtResult<Set<Var>> analyze() {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        IFDSResult<Stmt, Var> result = new IFDSSolver<>(
+                new UninitializedVariables(icfg), icfg).solve();
+        return new StmtResult<>() {
+            @Override
+            public boolean isRelevant(Stmt stmt) {
+                return true;
+            }
+
+            @Override
+            public Set<Var> getResult(Stmt stmt) {
+                return result.getFactsAt(stmt);
+            }
+        };
+    }
+}
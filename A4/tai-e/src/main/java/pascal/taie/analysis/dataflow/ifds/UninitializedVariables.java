@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Possibly-uninitialized variables analysis, formulated as an IFDS problem.
+ * A variable is in the result of a node if it may be uninitialized
+ * before the node is executed.
+ * <p>
+ * The problem is run as a program analysis by
+ * {@link UninitializedVariableAnalysis}, or directly by:
+ * <pre>
+ * IFDSResult&lt;Stmt, Var&gt; result = new IFDSSolver&lt;&gt;(
+ *         new UninitializedVariables(icfg), icfg).solve();
+ * </pre>
+ */
+public class UninitializedVariables implements IFDSProblem<Stmt, Var> {
+
+    /**
+     * The zero value, which is a dummy variable that is not contained
+     * in any method.
+     */
+    private static final Var ZERO = new Var(null, "<zero>", null, -1);
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    public UninitializedVariables(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+    }
+
+    @Override
+    public Var zeroValue() {
+        return ZERO;
+    }
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Stmt stmt = edge.getSource();
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        if (stmt.equals(icfg.getEntryOf(method))) {
+            // all local variables are uninitialized at method entry
+            return source -> {
+                if (source.equals(ZERO)) {
+                    Set<Var> result = Sets.newHybridSet(getLocalVars(method));
+                    result.add(ZERO);
+                    return result;
+                }
+                return Set.of(source);
+            };
+        }
+        Var def = getDefVar(stmt);
+        if (def == null) {
+            return Set::of;
+        }
+        return source -> {
+            if (source.equals(ZERO)) {
+                return Set.of(ZERO);
+            }
+            Set<Var> result = Sets.newSmallSet();
+            if (!source.equals(def)) {
+                result.add(source);
+            }
+            if (stmt.getUses().contains(source)) {
+                // def is computed from an uninitialized variable
+                result.add(def);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getSource()).getResult();
+        // the result variable is handled by return edges
+        return source -> source.equals(result) ? Set.of() : Set.of(source);
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        return source -> {
+            if (source.equals(ZERO)) {
+                return Set.of(ZERO);
+            }
+            Set<Var> result = Sets.newSmallSet();
+            for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                if (invokeExp.getArg(i).equals(source)) {
+                    result.add(params.get(i));
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        return source -> {
+            if (source.equals(ZERO)) {
+                return Set.of(ZERO);
+            }
+            if (result != null && edge.getReturnVars().contains(source)) {
+                return Set.of(result);
+            }
+            return Set.of();
+        };
+    }
+
+    /**
+     * @return the variables of given method except "this" and parameters.
+     */
+    private static Set<Var> getLocalVars(JMethod method) {
+        IR ir = method.getIR();
+        Set<Var> vars = Sets.newHybridSet(ir.getVars());
+        if (ir.getThis() != null) {
+            vars.remove(ir.getThis());
+        }
+        ir.getParams().forEach(vars::remove);
+        return vars;
+    }
+
+    private static Var getDefVar(Stmt stmt) {
+        LValue def = stmt.getDef().orElse(null);
+        return def instanceof Var var ? var : null;
+    }
+}
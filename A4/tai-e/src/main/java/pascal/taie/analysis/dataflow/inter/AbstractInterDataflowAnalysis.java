@@ -25,14 +25,23 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ICFGs;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
 
 /**
  * Provides common functionalities for {@link InterDataflowAnalysis} implementations.
@@ -67,6 +76,34 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected void finish() {
     }
 
+    /**
+     * @return true if the ICFG should contain only application methods.
+     */
+    protected boolean isAppOnly() {
+        return getOptions().getBooleanOrDefault("app-only", false);
+    }
+
+    /**
+     * @return true if the ICFG should be constructed on demand.
+     * In this case, the analysis does not require {@link ICFGBuilder}
+     * or {@link CallGraphBuilder}, the callees are resolved by CHA when
+     * the call sites are reached, and the CFGs of the reached methods
+     * are built with option {@code exception} of this analysis
+     * (explicit by default, the same as {@link CFGBuilder}).
+     */
+    protected boolean isLazyICFG() {
+        return getOptions().getBooleanOrDefault("lazy-icfg", false);
+    }
+
+    /**
+     * @return true if the solver should process the methods in parallel.
+     * The concrete analysis can overwrite this method if its transfer
+     * functions are not thread-safe.
+     */
+    protected boolean isParallel() {
+        return getOptions().getBooleanOrDefault("parallel", false);
+    }
+
     /**
      * Dispatches {@code Node} to specific node transfer functions for
      * call nodes and non-call nodes.
@@ -117,11 +154,39 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected abstract Fact transferReturnEdge(ReturnEdge<Node> edge, Fact returnOut);
     // ----------------------------------------------------------------
 
+    /**
+     * Builds the ICFG to be analyzed. By default, the ICFG is given by
+     * {@link ICFGBuilder}. If option app-only is set, the calls to library
+     * methods are cut from the ICFG, and the concrete analysis should handle
+     * such calls at call-to-return edges.
+     */
+    @SuppressWarnings("unchecked")
+    protected ICFG<Method, Node> buildICFG() {
+        boolean appOnly = isAppOnly();
+        if (isLazyICFG()) {
+            LazyICFG lazyICFG = new LazyICFG(
+                    getOptions().getString("exception"), appOnly);
+            if (World.get().getResult(ICFGBuilder.ID) == null) {
+                // the lazy ICFG tells which methods are reached
+                // (e.g., for ResultProcessor)
+                World.get().storeResult(ICFGBuilder.ID, lazyICFG);
+            }
+            return (ICFG<Method, Node>) lazyICFG;
+        }
+        if (!appOnly) {
+            return World.get().getResult(ICFGBuilder.ID);
+        }
+        CallGraph<Invoke, JMethod> callGraph = CallGraphs.getApplicationCallGraph(
+                World.get().getResult(CallGraphBuilder.ID));
+        return (ICFG<Method, Node>) ICFGs.build(
+                (CallGraph<Stmt, JMethod>) (CallGraph<?, ?>) callGraph);
+    }
+
     @Override
     public Object analyze() {
-        icfg = World.get().getResult(ICFGBuilder.ID);
+        icfg = buildICFG();
         initialize();
-        solver = new InterSolver<>(this, icfg);
+        solver = new InterSolver<>(this, icfg, isParallel());
         DataflowResult<Node, Fact> result = solver.solve();
         finish();
         return result;
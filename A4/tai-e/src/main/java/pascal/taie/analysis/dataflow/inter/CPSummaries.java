@@ -0,0 +1,368 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.CondensedGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Functional approach of {@link InterConstantPropagation}, which replaces
+ * the propagation along call and return edges of the ICFG.
+ * <p>
+ * Each method is analyzed over its CFG once per distinct entry fact, i.e.,
+ * per context, and the summary of a context is the value that the method
+ * returns under it. A call site takes its return value from the summaries
+ * of the contexts of its callees, and when a summary changes, the contexts
+ * that use it are re-analyzed, until a fixed point is reached.
+ * <p>
+ * Calls inside a recursive component of the call graph create no new
+ * contexts: each method of the component has one recursive context,
+ * whose entry fact is the meet of the entry facts of all recursive calls
+ * to it. This keeps the number of contexts finite, and recursion is
+ * iterated to a fixed point like the other calls.
+ * <p>
+ * The result of a node is the meet of its facts in the contexts of
+ * its method that are reached from the entry methods by the final facts
+ * of the call sites. Contexts created from facts that were later refined
+ * are left out of the result.
+ */
+class CPSummaries {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Summaries of library methods, may be null.
+     */
+    private final LibrarySummaries librarySummaries;
+
+    /**
+     * Condensation of the call graph, which tells the recursive calls.
+     */
+    private final CondensedGraph<JMethod> condensedGraph;
+
+    /**
+     * Map from each method to its contexts (entry fact -> context).
+     */
+    private final Map<JMethod, Map<CPFact, Context>> contexts = Maps.newMap();
+
+    /**
+     * Map from each recursive method to its recursive context.
+     */
+    private final Map<JMethod, Context> recursiveContexts = Maps.newMap();
+
+    /**
+     * Contexts of the entry methods.
+     */
+    private final List<Context> entryContexts = new ArrayList<>();
+
+    private final Queue<Context> workList = new SetQueue<>();
+
+    CPSummaries(ICFG<JMethod, Stmt> icfg, ConstantPropagation cp,
+                LibrarySummaries librarySummaries,
+                CallGraph<Invoke, JMethod> callGraph) {
+        this.icfg = icfg;
+        this.cp = cp;
+        this.librarySummaries = librarySummaries;
+        this.condensedGraph = callGraph.getCondensedGraph();
+    }
+
+    /**
+     * @return the entry fact of callee for given call site, which maps
+     * the parameters of callee to the values of corresponding arguments.
+     */
+    static CPFact getEntryFact(Invoke callSite, JMethod callee, CPFact callSiteOut) {
+        CPFact entryFact = new CPFact();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        List<Var> params = callee.getIR().getParams();
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            entryFact.update(params.get(i), callSiteOut.get(invokeExp.getArg(i)));
+        }
+        return entryFact;
+    }
+
+    /**
+     * Analyzes all contexts reachable from the entry methods until
+     * the summaries reach a fixed point.
+     *
+     * @return the facts of the ICFG nodes, merged over contexts.
+     */
+    DataflowResult<Stmt, CPFact> solve() {
+        icfg.entryMethods().forEach(method -> {
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            Context context = getContext(method, cp.newBoundaryFact(cfg));
+            entryContexts.add(context);
+            workList.add(context);
+        });
+        while (!workList.isEmpty()) {
+            analyze(workList.poll());
+        }
+        return collectResult();
+    }
+
+    private Context getContext(JMethod method, CPFact entryFact) {
+        return contexts.computeIfAbsent(method, m -> Maps.newHybridMap())
+                .computeIfAbsent(entryFact, f -> new Context(method, f));
+    }
+
+    /**
+     * @return true if the call from caller to callee is inside
+     * a recursive component of the call graph.
+     */
+    private boolean isRecursiveCall(JMethod caller, JMethod callee) {
+        CondensedGraph.Component<JMethod> component =
+                condensedGraph.getComponentOf(caller);
+        return component != null && component.isRecursive()
+                && component == condensedGraph.getComponentOf(callee);
+    }
+
+    /**
+     * Analyzes the CFG of the method of given context with its entry fact.
+     * Call sites take return values from the existing summaries of their
+     * callees. After the facts are stable, the contexts of the callees are
+     * created or updated with the final facts of the call sites, so that no
+     * context is created from intermediate facts.
+     */
+    private void analyze(Context context) {
+        JMethod method = context.method;
+        IR ir = method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Map<Stmt, CPFact> inFacts = Maps.newMap();
+        Map<Stmt, CPFact> outFacts = Maps.newMap();
+        for (Stmt node : cfg) {
+            outFacts.put(node, cp.newInitialFact());
+        }
+        Queue<Stmt> nodes = new SetQueue<>();
+        cfg.getNodes().forEach(nodes::add);
+        while (!nodes.isEmpty()) {
+            Stmt node = nodes.poll();
+            CPFact in;
+            if (cfg.isEntry(node)) {
+                in = context.entryFact.copy();
+            } else {
+                in = cp.newInitialFact();
+                for (Stmt pred : cfg.getPredsOf(node)) {
+                    cp.meetInto(outFacts.get(pred), in);
+                }
+            }
+            inFacts.put(node, in);
+            CPFact out = outFacts.get(node);
+            boolean changed;
+            if (icfg.isCallSite(node)) {
+                Invoke invoke = (Invoke) node;
+                CPFact newFact = in.copy();
+                Var var = invoke.getResult();
+                if (var != null) {
+                    newFact.remove(var);
+                    if (ConstantPropagation.canHoldInt(var)) {
+                        newFact.update(var, getReturnValue(method, invoke, in));
+                    }
+                }
+                changed = out.copyFrom(newFact);
+            } else {
+                changed = cp.transferNode(node, in, out);
+            }
+            if (changed) {
+                nodes.addAll(cfg.getSuccsOf(node));
+            }
+        }
+        context.inFacts = inFacts;
+        context.outFacts = outFacts;
+        // enter the callees with the final facts of the call sites
+        for (Stmt node : cfg) {
+            if (icfg.isCallSite(node)) {
+                Invoke invoke = (Invoke) node;
+                for (JMethod callee : icfg.getCalleesOf(invoke)) {
+                    enterCallee(context, invoke, callee, inFacts.get(node));
+                }
+            }
+        }
+        CPFact exitIn = inFacts.get(cfg.getExit());
+        Value returnValue = Value.getUndef();
+        for (Var retVar : ir.getReturnVars()) {
+            returnValue = cp.meetValue(returnValue, exitIn.get(retVar));
+        }
+        if (!returnValue.equals(context.returnValue)) {
+            context.returnValue = returnValue;
+            workList.addAll(context.callers);
+        }
+    }
+
+    private void enterCallee(Context caller, Invoke callSite,
+                             JMethod callee, CPFact callSiteIn) {
+        CPFact entryFact = getEntryFact(callSite, callee, callSiteIn);
+        Context context;
+        boolean changed;
+        if (isRecursiveCall(caller.method, callee)) {
+            context = recursiveContexts.get(callee);
+            if (context == null) {
+                context = new Context(callee, entryFact);
+                recursiveContexts.put(callee, context);
+                changed = true;
+            } else {
+                CPFact merged = context.entryFact.copy();
+                cp.meetInto(entryFact, merged);
+                changed = !merged.equals(context.entryFact);
+                context.entryFact = merged;
+            }
+        } else {
+            context = getContext(callee, entryFact);
+            changed = context.outFacts == null;
+        }
+        context.callers.add(caller);
+        if (changed) {
+            workList.add(context);
+        }
+    }
+
+    /**
+     * @return the value returned by given call site, i.e., the meet of
+     * the current summaries of all its callees (including the library
+     * callees that are cut from the ICFG).
+     */
+    private Value getReturnValue(JMethod caller, Invoke callSite, CPFact callSiteIn) {
+        Value result = Value.getUndef();
+        for (JMethod callee : icfg.getCalleesOf(callSite)) {
+            Context context = getCalleeContext(caller, callSite, callee, callSiteIn);
+            if (context != null && context.returnValue != null) {
+                result = cp.meetValue(result, context.returnValue);
+            }
+        }
+        if (librarySummaries != null) {
+            result = cp.meetValue(result,
+                    librarySummaries.getReturnValue(callSite, callSiteIn::get));
+        }
+        return result;
+    }
+
+    /**
+     * @return the context of callee entered by given call site with
+     * given fact, or null if such context does not exist.
+     */
+    private Context getCalleeContext(JMethod caller, Invoke callSite,
+                                     JMethod callee, CPFact callSiteIn) {
+        if (isRecursiveCall(caller, callee)) {
+            return recursiveContexts.get(callee);
+        } else {
+            Map<CPFact, Context> table = contexts.get(callee);
+            return table == null ? null : table.get(
+                    getEntryFact(callSite, callee, callSiteIn));
+        }
+    }
+
+    /**
+     * Merges the facts of the contexts that are reached from the entry
+     * contexts by the final facts of the call sites.
+     */
+    private DataflowResult<Stmt, CPFact> collectResult() {
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt node : icfg.getNodes()) {
+            result.setInFact(node, cp.newInitialFact());
+            result.setOutFact(node, cp.newInitialFact());
+        }
+        Set<Context> reached = Sets.newSet();
+        Queue<Context> queue = new ArrayDeque<>();
+        for (Context context : entryContexts) {
+            if (reached.add(context)) {
+                queue.add(context);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Context context = queue.poll();
+            if (context.outFacts == null) {
+                continue;
+            }
+            context.inFacts.forEach((node, fact) ->
+                    cp.meetInto(fact, result.getInFact(node)));
+            context.outFacts.forEach((node, fact) ->
+                    cp.meetInto(fact, result.getOutFact(node)));
+            context.inFacts.forEach((node, fact) -> {
+                if (icfg.isCallSite(node)) {
+                    Invoke invoke = (Invoke) node;
+                    for (JMethod callee : icfg.getCalleesOf(invoke)) {
+                        Context calleeContext = getCalleeContext(
+                                context.method, invoke, callee, fact);
+                        if (calleeContext != null && reached.add(calleeContext)) {
+                            queue.add(calleeContext);
+                        }
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * A method analyzed under an entry fact.
+     */
+    private static class Context {
+
+        private final JMethod method;
+
+        private CPFact entryFact;
+
+        /**
+         * The summary, i.e., the value returned under this context,
+         * or null if this context has not been analyzed.
+         */
+        private Value returnValue;
+
+        private Map<Stmt, CPFact> inFacts;
+
+        private Map<Stmt, CPFact> outFacts;
+
+        /**
+         * Contexts whose call sites use the summary of this context.
+         */
+        private final Set<Context> callers = Sets.newHybridSet();
+
+        private Context(JMethod method, CPFact entryFact) {
+            this.method = method;
+            this.entryFact = entryFact;
+        }
+    }
+}
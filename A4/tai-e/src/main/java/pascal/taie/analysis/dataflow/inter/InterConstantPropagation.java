@@ -22,8 +22,14 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CHABuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
@@ -31,7 +37,6 @@ import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
-import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.DefinitionStmt;
@@ -39,7 +44,9 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
-import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of interprocedural constant propagation for int values.
@@ -51,9 +58,71 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Whether to analyze the methods per calling context via memoized
+     * method summaries (the functional approach) instead of propagating
+     * along call and return edges.
+     */
+    private final boolean summary;
+
+    /**
+     * Summaries of library methods, which are available only when
+     * the calls to library methods are cut from the ICFG.
+     */
+    private LibrarySummaries librarySummaries;
+
+    /**
+     * Whether to solve linear constant propagation with the IDE solver
+     * instead of the iterative inter-procedural solver.
+     */
+    private final boolean ide;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        summary = getOptions().getBooleanOrDefault("summary", false);
+        ide = getOptions().getBooleanOrDefault("ide", false);
+    }
+
+    @Override
+    public Object analyze() {
+        if (ide) {
+            icfg = buildICFG();
+            initializeLibrarySummaries();
+            return new LinearConstantPropagation(icfg, cp, librarySummaries).solve();
+        }
+        if (summary) {
+            icfg = buildICFG();
+            initializeLibrarySummaries();
+            return new CPSummaries(icfg, cp, librarySummaries,
+                    World.get().getResult(CallGraphBuilder.ID)).solve();
+        }
+        return super.analyze();
+    }
+
+    @Override
+    protected void initialize() {
+        initializeLibrarySummaries();
+    }
+
+    private void initializeLibrarySummaries() {
+        if (isAppOnly()) {
+            Function<Invoke, Set<JMethod>> callees;
+            if (isLazyICFG()) {
+                // the whole-program call graph is not built in this case
+                CHABuilder chaBuilder = new CHABuilder();
+                callees = callSite -> chaBuilder.resolveCallEdges(callSite)
+                        .stream()
+                        .map(Edge::getCallee)
+                        .collect(Collectors.toSet());
+            } else {
+                CallGraph<Invoke, JMethod> callGraph =
+                        World.get().getResult(CallGraphBuilder.ID);
+                callees = callGraph::getCalleesOf;
+            }
+            librarySummaries = new LibrarySummaries(callees, cp,
+                    getOptions().getString("library-summaries"));
+        }
     }
 
     @Override
@@ -103,6 +172,14 @@ public class InterConstantPropagation extends
             Var var = invoke.getResult();
             if(var !=null) {
                 newFact.remove(var);
+                if (ConstantPropagation.canHoldInt(var)) {
+                    Value value = Value.getUndef();
+                    if (librarySummaries != null) {
+                        // calls to library methods are cut from the ICFG
+                        value = librarySummaries.getReturnValue(invoke, out::get);
+                    }
+                    newFact.update(var, value);
+                }
             }
         }
         return newFact;
@@ -111,18 +188,10 @@ public class InterConstantPropagation extends
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finished
-        CPFact newFact = new CPFact();
         if(edge.getSource() instanceof Invoke invoke) {
-            InvokeExp invokeExp = invoke.getInvokeExp();
-            int count = invokeExp.getArgCount();
-            JMethod method = edge.getCallee();
-            List<Var> vars = method.getIR().getParams();
-            assert count == method.getParamCount();
-            for(int i = 0; i < count; i++) {
-                newFact.update(vars.get(i), callSiteOut.get(invokeExp.getArg(i)));
-            }
+            return CPSummaries.getEntryFact(invoke, edge.getCallee(), callSiteOut);
         }
-        return newFact;
+        return new CPFact();
     }
 
     @Override
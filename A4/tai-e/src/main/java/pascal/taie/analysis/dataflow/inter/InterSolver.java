@@ -24,15 +24,23 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
-import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.LazyICFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Solver for inter-procedural data-flow analysis.
@@ -49,16 +57,35 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * Whether to solve the partitions of different methods in parallel.
+     */
+    private final boolean parallel;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, false);
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, boolean parallel) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.parallel = parallel;
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
         initialize();
-        doSolve();
+        if (icfg instanceof LazyICFG) {
+            // the lazy ICFG is mutated during solving, thus it is
+            // always solved sequentially
+            doSolveLazy();
+        } else if (parallel) {
+            doSolveParallel();
+        } else {
+            doSolve();
+        }
         return result;
     }
 
@@ -94,4 +121,230 @@ class InterSolver<Method, Node, Fact> {
         }
 
     }
+
+    /**
+     * Solves the analysis on a {@link LazyICFG}. The nodes are processed
+     * only after they are reached from the entries of entry methods,
+     * and each reached node propagates to its successors at least once,
+     * so that the callees of a call site are materialized when the call
+     * site is reached.
+     */
+    private void doSolveLazy() {
+        Set<Node> reached = Sets.newSet();
+        workList = new ArrayDeque<>();
+        icfg.entryMethods().map(icfg::getEntryOf).forEach(workList::add);
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            boolean firstReached = reached.add(node);
+            if (result.getOutFact(node) == null) {
+                result.setOutFact(node, analysis.newInitialFact());
+            }
+            Fact in = analysis.newInitialFact();
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                Fact out = result.getOutFact(edge.getSource());
+                if (out != null) { // unreached predecessors give nothing
+                    analysis.meetInto(analysis.transferEdge(edge, out), in);
+                }
+            }
+            result.setInFact(node, in);
+            if (analysis.transferNode(node, in, result.getOutFact(node))
+                    || firstReached) {
+                workList.addAll(icfg.getSuccsOf(node));
+            }
+        }
+    }
+
+    // ---------- parallel solving ----------
+
+    /**
+     * Map from methods to their partitions.
+     */
+    private Map<Method, Partition> partitions;
+
+    private ForkJoinPool pool;
+
+    /**
+     * The first exception thrown by the worker tasks, if any.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Solves the analysis in parallel. The ICFG nodes are partitioned
+     * by their containing methods, and each partition is processed by
+     * at most one worker at a time, thus the facts of a partition
+     * are only accessed by its owner. The facts flowing along call and
+     * return edges (which cross partitions) are exchanged by posting
+     * snapshots to the mailbox of the target partition.
+     * <p>
+     * As the analysis is monotone, the order of processing does not
+     * affect the fixed point, thus the result is identical to
+     * the one of {@link #doSolve()}.
+     */
+    private void doSolveParallel() {
+        partitions = Maps.newMap();
+        icfg.getNodes().forEach(node -> partitions.computeIfAbsent(
+                icfg.getContainingMethodOf(node), Partition::new).init(node));
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            partitions.values().forEach(Partition::schedule);
+            pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } finally {
+            pool.shutdown();
+        }
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException e) {
+            throw e;
+        } else if (t instanceof Error e) {
+            throw e;
+        }
+        partitions.values().forEach(Partition::commit);
+        partitions = null;
+        pool = null;
+    }
+
+    private Partition getPartition(Node node) {
+        return partitions.get(icfg.getContainingMethodOf(node));
+    }
+
+    /**
+     * Nodes and facts of a method.
+     */
+    private class Partition {
+
+        private final Method method;
+
+        private final Set<Node> nodes = Sets.newHybridOrderedSet();
+
+        private final Map<Node, Fact> inFacts = Maps.newHybridMap();
+
+        private final Map<Node, Fact> outFacts = Maps.newHybridMap();
+
+        private final Queue<Node> localWorkList = new SetQueue<>();
+
+        /**
+         * OUT facts of the nodes in other partitions, which flow
+         * into this partition.
+         */
+        private final Map<Node, Fact> remoteOutFacts = Maps.newHybridMap();
+
+        /**
+         * Nodes whose OUT facts have been posted to other partitions.
+         */
+        private final Set<Node> posted = Sets.newHybridSet();
+
+        /**
+         * Snapshots of OUT facts posted by other partitions.
+         */
+        private final Queue<Pair<Node, Fact>> mailbox = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Whether a worker task of this partition is scheduled or running.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Partition(Method method) {
+            this.method = method;
+        }
+
+        private void init(Node node) {
+            nodes.add(node);
+            inFacts.put(node, result.getInFact(node));
+            outFacts.put(node, result.getOutFact(node));
+            localWorkList.add(node);
+        }
+
+        private void post(Node source, Fact snapshot) {
+            mailbox.add(new Pair<>(source, snapshot));
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this::run);
+            }
+        }
+
+        private void run() {
+            try {
+                do {
+                    process();
+                    scheduled.set(false);
+                    // re-check the mailbox to avoid losing the messages
+                    // posted after the last drain
+                } while (!mailbox.isEmpty() &&
+                        scheduled.compareAndSet(false, true));
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+
+        private void process() {
+            while (true) {
+                Pair<Node, Fact> message;
+                while ((message = mailbox.poll()) != null) {
+                    Node source = message.first();
+                    remoteOutFacts.put(source, message.second());
+                    icfg.getSuccsOf(source).forEach(succ -> {
+                        if (nodes.contains(succ)) {
+                            localWorkList.add(succ);
+                        }
+                    });
+                }
+                Node node = localWorkList.poll();
+                if (node == null) {
+                    return;
+                }
+                Fact in = analysis.newInitialFact();
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    Fact out = getOutFact(edge.getSource());
+                    analysis.meetInto(analysis.transferEdge(edge, out), in);
+                }
+                inFacts.put(node, in);
+                boolean changed = analysis.transferNode(
+                        node, in, outFacts.get(node));
+                if (changed || posted.add(node)) {
+                    propagate(node, changed);
+                }
+            }
+        }
+
+        private Fact getOutFact(Node node) {
+            if (nodes.contains(node)) {
+                return outFacts.get(node);
+            }
+            Fact out = remoteOutFacts.get(node);
+            return out != null ? out : analysis.newInitialFact();
+        }
+
+        private void propagate(Node node, boolean changed) {
+            Fact snapshot = null;
+            Set<Partition> targets = Sets.newSmallSet();
+            for (Node succ : icfg.getSuccsOf(node)) {
+                if (nodes.contains(succ)) {
+                    if (changed) {
+                        localWorkList.add(succ);
+                    }
+                } else {
+                    Partition target = getPartition(succ);
+                    if (targets.add(target)) {
+                        if (snapshot == null) {
+                            snapshot = analysis.newInitialFact();
+                            analysis.meetInto(outFacts.get(node), snapshot);
+                        }
+                        target.post(node, snapshot);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Partition{" + method + "}";
+        }
+
+        private void commit() {
+            inFacts.forEach(result::setInFact);
+            outFacts.forEach(result::setOutFact);
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Summaries of library methods, which are used to compute the values
+ * returned by the calls to library methods when such calls are cut
+ * from the ICFG (i.e., option app-only is set).
+ * <p>
+ * The value returned by a library method is given by (in this order):
+ * <ol>
+ *     <li>the constant table specified by option library-summaries,
+ *     each line of which is of the form {@code <signature> = <value>},
+ *     where value is an int constant or NAC;</li>
+ *     <li>the built-in pure JDK methods, whose return values are computed
+ *     from the values of the arguments;</li>
+ *     <li>otherwise, NAC.</li>
+ * </ol>
+ */
+class LibrarySummaries {
+
+    private static final Map<String, IntUnaryOperator> UNARY_PURE_METHODS = Map.of(
+            "<java.lang.Math: int abs(int)>", Math::abs,
+            "<java.lang.Integer: int signum(int)>", Integer::signum,
+            "<java.lang.Integer: int bitCount(int)>", Integer::bitCount,
+            "<java.lang.Integer: int reverse(int)>", Integer::reverse,
+            "<java.lang.Integer: int reverseBytes(int)>", Integer::reverseBytes,
+            "<java.lang.Integer: int highestOneBit(int)>", Integer::highestOneBit,
+            "<java.lang.Integer: int lowestOneBit(int)>", Integer::lowestOneBit,
+            "<java.lang.Integer: int numberOfLeadingZeros(int)>", Integer::numberOfLeadingZeros,
+            "<java.lang.Integer: int numberOfTrailingZeros(int)>", Integer::numberOfTrailingZeros
+    );
+
+    private static final Map<String, IntBinaryOperator> BINARY_PURE_METHODS = Map.of(
+            "<java.lang.Math: int max(int,int)>", Math::max,
+            "<java.lang.Math: int min(int,int)>", Math::min,
+            "<java.lang.Integer: int max(int,int)>", Math::max,
+            "<java.lang.Integer: int min(int,int)>", Math::min,
+            "<java.lang.Integer: int sum(int,int)>", Integer::sum,
+            "<java.lang.Integer: int compare(int,int)>", Integer::compare,
+            "<java.lang.Integer: int rotateLeft(int,int)>", Integer::rotateLeft,
+            "<java.lang.Integer: int rotateRight(int,int)>", Integer::rotateRight
+    );
+
+    /**
+     * Gives the complete callees of the call sites, including
+     * the library methods.
+     */
+    private final Function<Invoke, Set<JMethod>> callees;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Map from method signatures to the values returned by the methods.
+     */
+    private final Map<String, Value> constants = Maps.newMap();
+
+    /**
+     * @param callees gives the complete callees of the call sites,
+     *                e.g., by the complete call graph
+     * @param file    the file of the constant table, may be null
+     */
+    LibrarySummaries(Function<Invoke, Set<JMethod>> callees,
+                     ConstantPropagation cp, String file) {
+        this.callees = callees;
+        this.cp = cp;
+        if (file != null) {
+            readConstants(Path.of(file));
+        }
+    }
+
+    private void readConstants(Path path) {
+        try {
+            for (String line : Files.readAllLines(path)) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int i = line.lastIndexOf('=');
+                if (i < 0) {
+                    throw new AnalysisException("Invalid library summary: " + line);
+                }
+                String signature = line.substring(0, i).strip();
+                String value = line.substring(i + 1).strip();
+                constants.put(signature, value.equals("NAC") ?
+                        Value.getNAC() : Value.makeConstant(Integer.parseInt(value)));
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new AnalysisException("Failed to read library summaries from " + path, e);
+        }
+    }
+
+    /**
+     * @return true if given call site may call library methods.
+     */
+    boolean hasLibraryCallees(Invoke callSite) {
+        return callees.apply(callSite)
+                .stream()
+                .anyMatch(callee -> !CallGraphs.isApplication(callee));
+    }
+
+    /**
+     * @param values gives the values of the arguments at the call site
+     * @return the meet of the values returned by the library callees
+     * of given call site, or UNDEF if it does not call any library method.
+     */
+    Value getReturnValue(Invoke callSite, Function<Var, Value> values) {
+        Value result = Value.getUndef();
+        for (JMethod callee : callees.apply(callSite)) {
+            if (!CallGraphs.isApplication(callee)) {
+                result = cp.meetValue(result,
+                        getReturnValue(callee, callSite.getInvokeExp(), values));
+            }
+        }
+        return result;
+    }
+
+    private Value getReturnValue(JMethod callee, InvokeExp invokeExp,
+                                 Function<Var, Value> values) {
+        String signature = callee.getSignature();
+        Value constant = constants.get(signature);
+        if (constant != null) {
+            return constant;
+        }
+        IntUnaryOperator unary = UNARY_PURE_METHODS.get(signature);
+        if (unary != null) {
+            return evaluate(invokeExp.getArgs(), values,
+                    args -> unary.applyAsInt(args[0]));
+        }
+        IntBinaryOperator binary = BINARY_PURE_METHODS.get(signature);
+        if (binary != null) {
+            return evaluate(invokeExp.getArgs(), values,
+                    args -> binary.applyAsInt(args[0], args[1]));
+        }
+        return Value.getNAC();
+    }
+
+    /**
+     * Evaluates a pure method on the values of given arguments.
+     */
+    private static Value evaluate(List<Var> args, Function<Var, Value> values,
+                                  Function<int[], Integer> method) {
+        int[] constants = new int[args.size()];
+        boolean undef = false;
+        for (int i = 0; i < constants.length; ++i) {
+            Value value = values.apply(args.get(i));
+            if (value.isNAC()) {
+                return Value.getNAC();
+            } else if (value.isUndef()) {
+                undef = true;
+            } else {
+                constants[i] = value.getConstant();
+            }
+        }
+        return undef ? Value.getUndef() :
+                Value.makeConstant(method.apply(constants));
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.ifds.EdgeFunction;
+import pascal.taie.analysis.dataflow.ifds.FlowFunction;
+import pascal.taie.analysis.dataflow.ifds.IDEProblem;
+import pascal.taie.analysis.dataflow.ifds.IDEResult;
+import pascal.taie.analysis.dataflow.ifds.IDESolver;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Linear constant propagation, formulated as an IDE problem.
+ * The data-flow facts are int variables, and the values are {@link Value}s.
+ * <p>
+ * Assignments of the form x = a*y+b (where a and b are constants) are
+ * handled precisely by linear edge functions, while other non-constant
+ * assignments give NAC, as they are not distributive, unless all their
+ * operands are resolved to constants (see {@link #resolveNonLinearTransfers}).
+ */
+class LinearConstantPropagation implements IDEProblem<Stmt, Var, Value> {
+
+    /**
+     * The zero value, which is a dummy variable that is not contained
+     * in any method.
+     */
+    private static final Var ZERO = new Var(null, "<zero>", null, -1);
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final ConstantPropagation cp;
+
+    private final Set<JMethod> entryMethods;
+
+    /**
+     * Summaries of library methods, may be null.
+     */
+    private final LibrarySummaries librarySummaries;
+
+    /**
+     * Caches the transfers of statements.
+     */
+    private final Map<Stmt, Transfer> transfers = Maps.newMap();
+
+    LinearConstantPropagation(ICFG<JMethod, Stmt> icfg, ConstantPropagation cp,
+                              LibrarySummaries librarySummaries) {
+        this.icfg = icfg;
+        this.cp = cp;
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+        this.librarySummaries = librarySummaries;
+    }
+
+    /**
+     * Solves this problem and converts the result to the form of
+     * {@link InterConstantPropagation}.
+     */
+    DataflowResult<Stmt, CPFact> solve() {
+        IDEResult<Stmt, Var, Value> ideResult;
+        do {
+            ideResult = new IDESolver<>(this, icfg).solve();
+        } while (resolveNonLinearTransfers(ideResult));
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt node : icfg) {
+            CPFact in = cp.newInitialFact();
+            ideResult.getValuesAt(node).forEach(in::update);
+            CPFact out = cp.newInitialFact();
+            if (icfg.isCallSite(node)) {
+                out.copyFrom(in);
+            } else {
+                cp.transferNode(node, in, out);
+            }
+            result.setInFact(node, in);
+            result.setOutFact(node, out);
+        }
+        return result;
+    }
+
+    /**
+     * The edge function of a non-linear assignment, e.g., x = y * z,
+     * cannot depend on the values of both operands, thus a single run of
+     * the IDE solver gives NAC for it. This method resolves the non-linear
+     * assignments whose operands are both constant in the given result
+     * to constant functions, so that solving the problem again propagates
+     * the new constants. As the values only get more precise in later runs,
+     * each assignment is resolved at most once.
+     *
+     * @return true if any transfer has been resolved.
+     */
+    private boolean resolveNonLinearTransfers(IDEResult<Stmt, Var, Value> ideResult) {
+        boolean changed = false;
+        for (Map.Entry<Stmt, Transfer> entry : transfers.entrySet()) {
+            Transfer transfer = entry.getValue();
+            if (transfer.operand() == null &&
+                    transfer.function() == LinearFunction.allBottom() &&
+                    entry.getKey() instanceof DefinitionStmt<?, ?> defStmt &&
+                    defStmt.getRValue() instanceof BinaryExp binary) {
+                Map<Var, Value> values = ideResult.getValuesAt(defStmt);
+                Value v1 = values.get(binary.getOperand1());
+                Value v2 = values.get(binary.getOperand2());
+                if (v1 != null && v1.isConstant() && v2 != null && v2.isConstant()) {
+                    LinearFunction function = LinearFunction.constant(
+                            ConstantPropagation.BinaryEvaluate(v1, v2, binary.getOperator()));
+                    if (function != transfer.function()) {
+                        entry.setValue(new Transfer(transfer.def(), null, function));
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public Var zeroValue() {
+        return ZERO;
+    }
+
+    @Override
+    public Value topValue() {
+        return Value.getUndef();
+    }
+
+    @Override
+    public Value bottomValue() {
+        return Value.getNAC();
+    }
+
+    @Override
+    public Value meetValue(Value v1, Value v2) {
+        return cp.meetValue(v1, v2);
+    }
+
+    @Override
+    public EdgeFunction<Value> allTop() {
+        return LinearFunction.allTop();
+    }
+
+    @Override
+    public EdgeFunction<Value> identity() {
+        return LinearFunction.identity();
+    }
+
+    // ---------- flow functions ----------
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Stmt stmt = edge.getSource();
+        if (isEntryOfEntryMethod(stmt)) {
+            // parameters of entry methods are NAC
+            List<Var> params = getIntParams(icfg.getContainingMethodOf(stmt));
+            return source -> {
+                if (source.equals(ZERO)) {
+                    Set<Var> result = Sets.newHybridSet(params);
+                    result.add(ZERO);
+                    return result;
+                }
+                return Set.of(source);
+            };
+        }
+        Transfer transfer = getTransfer(stmt);
+        Var def = transfer.def();
+        if (def == null) {
+            return Set::of;
+        }
+        return source -> {
+            if (source.equals(ZERO)) {
+                return transfer.operand() == null && !transfer.function().isAllTop()
+                        ? Set.of(ZERO, def) : Set.of(ZERO);
+            } else if (source.equals(transfer.operand())) {
+                return source.equals(def) ? Set.of(def) : Set.of(source, def);
+            } else if (source.equals(def)) {
+                return Set.of();
+            } else {
+                return Set.of(source);
+            }
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Invoke invoke = (Invoke) edge.getSource();
+        Var result = invoke.getResult();
+        if (callsLibrary(invoke)) {
+            // the result of calls to library methods (which are cut
+            // from the ICFG) is generated from zero value
+            return source -> {
+                if (source.equals(ZERO)) {
+                    return Set.of(ZERO, result);
+                }
+                return source.equals(result) ? Set.of() : Set.of(source);
+            };
+        }
+        // the result variable is handled by return edges
+        return source -> source.equals(result) ? Set.of() : Set.of(source);
+    }
+
+    /**
+     * @return true if given call site calls library methods which are
+     * cut from the ICFG, and its result is an int variable.
+     */
+    private boolean callsLibrary(Invoke invoke) {
+        Var result = invoke.getResult();
+        return librarySummaries != null && result != null &&
+                ConstantPropagation.canHoldInt(result) &&
+                librarySummaries.hasLibraryCallees(invoke);
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        return source -> {
+            if (source.equals(ZERO)) {
+                return Set.of(ZERO);
+            }
+            Set<Var> result = Sets.newSmallSet();
+            for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+                if (invokeExp.getArg(i).equals(source)) {
+                    result.add(params.get(i));
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        boolean hasResult = result != null && ConstantPropagation.canHoldInt(result);
+        return source -> {
+            if (source.equals(ZERO)) {
+                return Set.of(ZERO);
+            }
+            if (hasResult && edge.getReturnVars().contains(source)) {
+                return Set.of(result);
+            }
+            return Set.of();
+        };
+    }
+
+    // ---------- edge functions ----------
+
+    @Override
+    public EdgeFunction<Value> getNormalEdgeFunction(
+            NormalEdge<Stmt> edge, Var source, Var target) {
+        Stmt stmt = edge.getSource();
+        if (isEntryOfEntryMethod(stmt)) {
+            return source.equals(ZERO) && !target.equals(ZERO)
+                    ? LinearFunction.allBottom()
+                    : LinearFunction.identity();
+        }
+        Transfer transfer = getTransfer(stmt);
+        if (target.equals(transfer.def())) {
+            return transfer.function();
+        }
+        return LinearFunction.identity();
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallToReturnEdgeFunction(
+            CallToReturnEdge<Stmt> edge, Var source, Var target) {
+        Invoke invoke = (Invoke) edge.getSource();
+        if (source.equals(ZERO) && target.equals(invoke.getResult())) {
+            // edge functions cannot depend on the values of arguments,
+            // thus the arguments are treated as NAC
+            Value value = librarySummaries.getReturnValue(
+                    invoke, arg -> Value.getNAC());
+            return LinearFunction.constant(value);
+        }
+        return LinearFunction.identity();
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallEdgeFunction(
+            CallEdge<Stmt> edge, Var source, Var target) {
+        return LinearFunction.identity();
+    }
+
+    @Override
+    public EdgeFunction<Value> getReturnEdgeFunction(
+            ReturnEdge<Stmt> edge, Var source, Var target) {
+        return LinearFunction.identity();
+    }
+
+    // ---------- statement transfers ----------
+
+    /**
+     * Transfer of a statement, which defines variable {@code def}
+     * as {@code function} applied to {@code operand}. If operand is null,
+     * then {@code def} is defined by a constant function.
+     * If {@code def} is null, then the statement does not define any
+     * int variable.
+     */
+    private record Transfer(Var def, Var operand, LinearFunction function) {
+
+        private static final Transfer NONE = new Transfer(null, null, null);
+    }
+
+    private boolean isEntryOfEntryMethod(Stmt stmt) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        return entryMethods.contains(method) && stmt.equals(icfg.getEntryOf(method));
+    }
+
+    private static List<Var> getIntParams(JMethod method) {
+        return method.getIR()
+                .getParams()
+                .stream()
+                .filter(ConstantPropagation::canHoldInt)
+                .toList();
+    }
+
+    private Transfer getTransfer(Stmt stmt) {
+        return transfers.computeIfAbsent(stmt, LinearConstantPropagation::computeTransfer);
+    }
+
+    private static Transfer computeTransfer(Stmt stmt) {
+        if (!(stmt instanceof DefinitionStmt<?, ?> defStmt) ||
+                !(defStmt.getLValue() instanceof Var def) ||
+                !ConstantPropagation.canHoldInt(def)) {
+            return Transfer.NONE;
+        }
+        RValue rvalue = defStmt.getRValue();
+        if (rvalue instanceof IntLiteral literal) {
+            return new Transfer(def, null,
+                    LinearFunction.constant(Value.makeConstant(literal.getValue())));
+        } else if (rvalue instanceof Var var) {
+            return new Transfer(def, var, LinearFunction.identity());
+        } else if (rvalue instanceof BinaryExp binary) {
+            return computeBinaryTransfer(def, binary);
+        } else {
+            return new Transfer(def, null, LinearFunction.allBottom());
+        }
+    }
+
+    private static Transfer computeBinaryTransfer(Var def, BinaryExp binary) {
+        Var op1 = binary.getOperand1();
+        Var op2 = binary.getOperand2();
+        Integer c1 = getIntConstant(op1);
+        Integer c2 = getIntConstant(op2);
+        BinaryExp.Op op = binary.getOperator();
+        if ((op == ArithmeticExp.Op.DIV || op == ArithmeticExp.Op.REM)
+                && c2 != null && c2 == 0) {
+            // division by zero gives UNDEF
+            return new Transfer(def, null, LinearFunction.allTop());
+        }
+        if (c1 != null && c2 != null) {
+            return new Transfer(def, null, LinearFunction.constant(
+                    ConstantPropagation.BinaryEvaluate(Value.makeConstant(c1),
+                            Value.makeConstant(c2), op)));
+        }
+        if (op == ArithmeticExp.Op.ADD) {
+            if (c2 != null) {
+                return new Transfer(def, op1, LinearFunction.linear(1, c2));
+            } else if (c1 != null) {
+                return new Transfer(def, op2, LinearFunction.linear(1, c1));
+            }
+        } else if (op == ArithmeticExp.Op.SUB) {
+            if (c2 != null) {
+                return new Transfer(def, op1, LinearFunction.linear(1, -c2));
+            } else if (c1 != null) {
+                return new Transfer(def, op2, LinearFunction.linear(-1, c1));
+            }
+        } else if (op == ArithmeticExp.Op.MUL) {
+            if (c2 != null) {
+                return new Transfer(def, op1, LinearFunction.linear(c2, 0));
+            } else if (c1 != null) {
+                return new Transfer(def, op2, LinearFunction.linear(c1, 0));
+            }
+        }
+        return new Transfer(def, null, LinearFunction.allBottom());
+    }
+
+    /**
+     * @return the int constant held by given variable if it is
+     * a temporary variable for int constant, otherwise null.
+     */
+    private static Integer getIntConstant(Var var) {
+        if (var.isTempConst() && var.getTempConstValue() instanceof IntLiteral literal) {
+            return literal.getValue();
+        }
+        return null;
+    }
+}
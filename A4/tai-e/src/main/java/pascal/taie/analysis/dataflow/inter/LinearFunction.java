@@ -0,0 +1,151 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.ifds.EdgeFunction;
+
+import java.util.Objects;
+
+/**
+ * Edge functions of linear constant propagation, which are either
+ * constant functions (λx.c) or linear functions (λx.a*x+b).
+ * Constant functions also cover the functions that map all values
+ * to UNDEF (top) or to NAC (bottom).
+ */
+final class LinearFunction implements EdgeFunction<Value> {
+
+    private static final LinearFunction IDENTITY = new LinearFunction(1, 0, null);
+
+    private static final LinearFunction ALL_TOP = new LinearFunction(0, 0, Value.getUndef());
+
+    private static final LinearFunction ALL_BOTTOM = new LinearFunction(0, 0, Value.getNAC());
+
+    private final int a;
+
+    private final int b;
+
+    /**
+     * If this function is a constant function, then this field holds
+     * its result; otherwise, this field is null.
+     */
+    private final Value constant;
+
+    private LinearFunction(int a, int b, Value constant) {
+        this.a = a;
+        this.b = b;
+        this.constant = constant;
+    }
+
+    static LinearFunction identity() {
+        return IDENTITY;
+    }
+
+    static LinearFunction allTop() {
+        return ALL_TOP;
+    }
+
+    static LinearFunction allBottom() {
+        return ALL_BOTTOM;
+    }
+
+    static LinearFunction constant(Value value) {
+        if (value.isUndef()) {
+            return ALL_TOP;
+        } else if (value.isNAC()) {
+            return ALL_BOTTOM;
+        } else {
+            return new LinearFunction(0, 0, value);
+        }
+    }
+
+    /**
+     * @return the function λx.a*x+b.
+     */
+    static LinearFunction linear(int a, int b) {
+        return a == 1 && b == 0 ? IDENTITY : new LinearFunction(a, b, null);
+    }
+
+    boolean isAllTop() {
+        return this == ALL_TOP;
+    }
+
+    @Override
+    public Value computeTarget(Value source) {
+        if (constant != null) {
+            return constant;
+        }
+        if (!source.isConstant()) { // UNDEF and NAC are kept as they are
+            return source;
+        }
+        return Value.makeConstant(a * source.getConstant() + b);
+    }
+
+    @Override
+    public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+        LinearFunction g = (LinearFunction) second;
+        if (g.constant != null) {
+            return g;
+        }
+        if (constant != null) {
+            return constant(g.computeTarget(constant));
+        }
+        return linear(g.a * a, g.a * b + g.b);
+    }
+
+    @Override
+    public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+        LinearFunction g = (LinearFunction) other;
+        if (equals(g) || g.isAllTop()) {
+            return this;
+        } else if (isAllTop()) {
+            return g;
+        } else {
+            // the pointwise meet of two different functions is not
+            // representable in general, thus we conservatively give NAC
+            return ALL_BOTTOM;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LinearFunction that)) {
+            return false;
+        }
+        return a == that.a && b == that.b &&
+                Objects.equals(constant, that.constant);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(a, b, constant);
+    }
+
+    @Override
+    public String toString() {
+        return constant != null ? "λx." + constant : "λx." + a + "*x+" + b;
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
+import pascal.taie.util.graph.CondensedGraph;
 
 import java.util.Collections;
 import java.util.Map;
@@ -52,6 +53,18 @@ public abstract class AbstractCallGraph<CallSite, Method>
     protected final Set<Method> entryMethods = Sets.newSet();
     protected final Set<Method> reachableMethods = Sets.newSet();
 
+    /**
+     * Cached condensation of this call graph, and the numbers of methods
+     * and edges of this call graph when the condensation was computed.
+     * Methods and edges are only added to a call graph, thus the cache
+     * is stale if and only if the numbers have changed.
+     */
+    private CondensedGraph<Method> condensedGraph;
+
+    private int condensedMethods;
+
+    private int condensedEdges;
+
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
         return Views.toMappedSet(calleeToEdges.get(callee), Edge::getCallSite);
@@ -119,6 +132,18 @@ public abstract class AbstractCallGraph<CallSite, Method>
         return reachableMethods.contains(method);
     }
 
+    @Override
+    public synchronized CondensedGraph<Method> getCondensedGraph() {
+        int nMethods = getNumberOfMethods(), nEdges = getNumberOfEdges();
+        if (condensedGraph == null || condensedMethods != nMethods
+                || condensedEdges != nEdges) {
+            condensedGraph = new CondensedGraph<>(this);
+            condensedMethods = nMethods;
+            condensedEdges = nEdges;
+        }
+        return condensedGraph;
+    }
+
     // Implementation for Graph interface.
 
     @Override
@@ -167,4 +192,15 @@ public abstract class AbstractCallGraph<CallSite, Method>
     public Set<Method> getNodes() {
         return Collections.unmodifiableSet(reachableMethods);
     }
+
+    /**
+     * Freezes this call graph after its construction.
+     *
+     * @return a read-only copy of this call graph, which stores
+     * the methods, call sites and edges in int-indexed arrays
+     * and answers queries without allocation.
+     */
+    public CallGraph<CallSite, Method> freeze() {
+        return new FrozenCallGraph<>(this);
+    }
 }
@@ -23,29 +23,110 @@
 package pascal.taie.analysis.graph.callgraph;
 
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.LibraryCallSummaries.CallSite;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 
 /**
  * Implementation of the CHA algorithm.
+ * <p>
+ * If library call summaries are given, the calls of the library methods
+ * that have been summarized are not resolved again: their call sites are
+ * taken from the IR by the indexes stored in the summaries, and their
+ * library callees are taken from the summaries. Only the callbacks to
+ * application classes are resolved freshly, so the call graph is the same
+ * as the one built without the summaries.
+ * <p>
+ * After building, the call graph can be updated incrementally when
+ * new classes are added to the class hierarchy, see {@link #update(Collection)}.
  */
-class CHABuilder implements CGBuilder<Invoke, JMethod> {
+public class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    /**
+     * Whether to process the methods of each BFS frontier in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Caches the resolved callees of the call sites that share
+     * the same declaring class, subsignature and call kind.
+     */
+    private final Map<ResolutionKey, Set<JMethod>> resolutionCache = Maps.newConcurrentMap();
+
+    /**
+     * Caches the results of {@link #dispatch(JClass, Subsignature)}
+     * for each class. An empty value means the dispatch fails.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchCache = Maps.newConcurrentMap();
+
+    /**
+     * File of the precomputed library call summaries, may be null.
+     */
+    private final String librarySummaryFile;
+
+    private LibraryCallSummaries librarySummaries;
+
+    private List<JClass> applicationClasses;
+
+    /**
+     * The call graph built by this builder, which is kept for updates.
+     */
+    private DefaultCallGraph callGraph;
+
+    /**
+     * Virtual and interface call sites in reachable methods, grouped by
+     * their resolution keys. It is built at the first update.
+     */
+    private MultiMap<ResolutionKey, Invoke> virtualCallSites;
+
+    public CHABuilder() {
+        this(false, null);
+    }
+
+    CHABuilder(boolean parallel, String librarySummaryFile) {
+        this.parallel = parallel;
+        this.librarySummaryFile = librarySummaryFile;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        if (librarySummaryFile != null) {
+            librarySummaries = new LibraryCallSummaries(
+                    Path.of(librarySummaryFile), hierarchy);
+            applicationClasses = new ArrayList<>(
+                    hierarchy.applicationClasses().toList());
+        }
+        JMethod entry = World.get().getMainMethod();
+        callGraph = parallel ?
+                buildCallGraphInParallel(entry) : buildCallGraph(entry);
+        if (librarySummaries != null) {
+            librarySummaries.save();
+        }
+        return callGraph;
     }
 
     private CallKind getCallKind(Invoke callSite) {
@@ -63,61 +144,336 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return null;
     }
 
-    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+    private DefaultCallGraph buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
         // TODO - finished
         ArrayDeque<JMethod> workList = new ArrayDeque<>();
         workList.add(entry);
+        explore(callGraph, workList);
+        return callGraph;
+    }
+
+    /**
+     * Adds the methods in the work list and the methods reachable from
+     * them to the call graph.
+     */
+    private void explore(DefaultCallGraph callGraph, Queue<JMethod> workList) {
         while (!workList.isEmpty()) {
-            JMethod current = workList.removeFirst();
+            JMethod current = workList.poll();
             if (!callGraph.contains(current)) {
-                callGraph.addReachableMethod(current);
-                for(Invoke callSite : callGraph.getCallSitesIn(current)) {
-                    CallKind kind = getCallKind(callSite);
-                    if (kind == null) { continue; }
-                    for(JMethod jMethod : resolve(callSite)) {
-                        if(jMethod == null) { continue; }
-                        callGraph.addEdge(new Edge<>(kind, callSite, jMethod));
-                        workList.add(jMethod);
+                addCallEdges(callGraph, current,
+                        resolveCallSitesIn(current), workList);
+            }
+        }
+    }
+
+    /**
+     * Adds given method, its call sites and call edges, which are given by
+     * {@link #resolveCallSitesIn(JMethod)}, to the call graph, and adds
+     * the callees to the work list.
+     */
+    private void addCallEdges(DefaultCallGraph callGraph, JMethod method,
+                              ResolvedCalls calls, Collection<JMethod> workList) {
+        callGraph.addReachableMethod(method, calls.callSites());
+        if (virtualCallSites != null) {
+            indexVirtualCallSites(method);
+        }
+        for (Edge<Invoke, JMethod> edge : calls.edges()) {
+            callGraph.addEdge(edge);
+            workList.add(edge.getCallee());
+        }
+    }
+
+    /**
+     * Call sites in a method and the call edges from them.
+     */
+    private record ResolvedCalls(List<Invoke> callSites,
+                                 List<Edge<Invoke, JMethod>> edges) {
+    }
+
+    /**
+     * Updates the call graph built by {@link #build()} after given classes
+     * have been added to the class hierarchy.
+     * <p>
+     * Adding classes does not change the dispatch results of existing
+     * classes, thus only the virtual and interface calls whose declaring
+     * classes are supertypes of the new classes may gain callees, i.e.,
+     * the methods dispatched on the new classes. This method adds the
+     * new call edges of such calls and the methods that become reachable,
+     * and keeps the rest of the call graph intact.
+     *
+     * @param newClasses the classes added to the class hierarchy since
+     *                   the last build or update
+     * @return the updated call graph
+     * @see CallGraphBuilder#addClasses(Collection)
+     */
+    public CallGraph<Invoke, JMethod> update(Collection<JClass> newClasses) {
+        if (callGraph == null) {
+            throw new IllegalStateException("Call graph has not been built");
+        }
+        if (virtualCallSites == null) {
+            virtualCallSites = Maps.newMultiMap();
+            callGraph.reachableMethods().forEach(this::indexVirtualCallSites);
+        }
+        if (applicationClasses != null) {
+            newClasses.stream()
+                    .filter(JClass::isApplication)
+                    .forEach(applicationClasses::add);
+        }
+        Queue<JMethod> workList = new ArrayDeque<>();
+        for (ResolutionKey key : List.copyOf(resolutionCache.keySet())) {
+            if (key.kind() != CallKind.VIRTUAL && key.kind() != CallKind.INTERFACE) {
+                continue;
+            }
+            Set<JMethod> callees = resolutionCache.get(key);
+            Set<JMethod> newCallees = Sets.newHybridSet();
+            for (JClass jclass : newClasses) {
+                if (hierarchy.isSubclass(key.declaringClass(), jclass)) {
+                    JMethod method = dispatch(jclass, key.subsignature());
+                    if (method != null && !callees.contains(method)) {
+                        newCallees.add(method);
+                    }
+                }
+            }
+            if (!newCallees.isEmpty()) {
+                Set<JMethod> updated = new HashSet<>(callees);
+                updated.addAll(newCallees);
+                resolutionCache.put(key, updated);
+                for (Invoke callSite : virtualCallSites.get(key)) {
+                    for (JMethod callee : newCallees) {
+                        callGraph.addEdge(new Edge<>(key.kind(), callSite, callee));
+                        workList.add(callee);
                     }
                 }
             }
         }
+        explore(callGraph, workList);
         return callGraph;
     }
 
+    private void indexVirtualCallSites(JMethod method) {
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            if (callSite.isVirtual() || callSite.isInterface()) {
+                virtualCallSites.put(getResolutionKey(callSite), callSite);
+            }
+        }
+    }
+
+    /**
+     * Builds call graph by processing the methods level by level.
+     * For the methods of each BFS frontier, building IR and resolving
+     * call sites are independent, thus they are performed in parallel.
+     * The results are then added to the call graph in the order of the
+     * frontier, so that the call graph is the same as the one given by
+     * {@link #buildCallGraph(JMethod)}.
+     */
+    private DefaultCallGraph buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        // build the subclass index before resolving call sites in parallel
+        hierarchy.getAllSubclassesOf(entry.getDeclaringClass());
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            Set<JMethod> next = Sets.newHybridOrderedSet();
+            List<ResolvedCalls> calls = frontier.parallelStream()
+                    .map(this::resolveCallSitesIn)
+                    .toList();
+            for (int i = 0; i < frontier.size(); ++i) {
+                addCallEdges(callGraph, frontier.get(i), calls.get(i), next);
+            }
+            next.removeIf(callGraph::contains);
+            frontier = List.copyOf(next);
+        }
+        return callGraph;
+    }
+
+    /**
+     * Builds IR of given method and resolves its call sites.
+     *
+     * @return the call sites in given method and the call edges from them.
+     */
+    private ResolvedCalls resolveCallSitesIn(JMethod method) {
+        if (method.isAbstract()) {
+            return new ResolvedCalls(List.of(), List.of());
+        }
+        ResolvedCalls summarized = resolveSummarizedCallSitesIn(method);
+        if (summarized != null) {
+            return summarized;
+        }
+        List<Invoke> callSites = new ArrayList<>();
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof Invoke callSite) {
+                callSites.add(callSite);
+                CallKind kind = getCallKind(callSite);
+                if (kind == null) { continue; }
+                for (JMethod callee : resolve(callSite)) {
+                    if (callee != null) {
+                        edges.add(new Edge<>(kind, callSite, callee));
+                    }
+                }
+            }
+        }
+        summarizeCallSitesIn(method, callSites);
+        return new ResolvedCalls(callSites, edges);
+    }
+
+    /**
+     * Splices the call sites and call edges of given library method from
+     * the library call summaries: the call sites are found in the IR by
+     * their indexes, and the callees are resolved by the summarized calls.
+     *
+     * @return the call sites in given method and the call edges from them,
+     * or null if the method has not been summarized or its summary does
+     * not match its IR.
+     */
+    @Nullable
+    private ResolvedCalls resolveSummarizedCallSitesIn(JMethod method) {
+        if (librarySummaries == null || method.getDeclaringClass().isApplication()) {
+            return null;
+        }
+        List<CallSite> summary = librarySummaries.getCallSitesIn(method);
+        if (summary == null) {
+            return null;
+        }
+        IR ir = method.getIR();
+        List<Invoke> callSites = new ArrayList<>(summary.size());
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (CallSite cs : summary) {
+            if (cs.index() >= ir.getStmts().size() ||
+                    !(ir.getStmt(cs.index()) instanceof Invoke callSite) ||
+                    (cs.key() != null && !cs.key().equals(getResolutionKey(callSite)))) {
+                return null; // stale summary
+            }
+            callSites.add(callSite);
+            if (cs.key() != null) {
+                for (JMethod callee : resolve(cs.key())) {
+                    if (callee != null) {
+                        edges.add(new Edge<>(cs.key().kind(), callSite, callee));
+                    }
+                }
+            }
+        }
+        return new ResolvedCalls(callSites, edges);
+    }
+
+    /**
+     * Records the call sites in given library method to the library call summaries.
+     */
+    private void summarizeCallSitesIn(JMethod method, List<Invoke> callSites) {
+        if (librarySummaries != null && !method.getDeclaringClass().isApplication()) {
+            librarySummaries.putCallSitesIn(method, callSites.stream()
+                    .map(callSite -> new CallSite(callSite.getIndex(),
+                            getCallKind(callSite) == null || callSite.isDynamic() ?
+                                    null : getResolutionKey(callSite)))
+                    .toList());
+        }
+    }
+
+    /**
+     * Key of the resolution cache. Call sites with the same key
+     * have the same callees.
+     */
+    record ResolutionKey(JClass declaringClass,
+                         Subsignature subsignature,
+                         CallKind kind) {
+    }
+
+    private ResolutionKey getResolutionKey(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        return new ResolutionKey(methodRef.getDeclaringClass(),
+                methodRef.getSubsignature(), getCallKind(callSite));
+    }
+
+    /**
+     * Resolves the call edges of given call site via CHA without building
+     * the whole call graph, so that the call graph can be constructed
+     * on demand, e.g., by {@link pascal.taie.analysis.graph.icfg.LazyICFG}.
+     * Unlike {@link #build()}, this does not build the IR of any method.
+     */
+    public List<Edge<Invoke, JMethod>> resolveCallEdges(Invoke callSite) {
+        if (hierarchy == null) {
+            hierarchy = World.get().getClassHierarchy();
+        }
+        CallKind kind = getCallKind(callSite);
+        if (kind == null) {
+            return List.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        for (JMethod callee : resolve(callSite)) {
+            if (callee != null) {
+                edges.add(new Edge<>(kind, callSite, callee));
+            }
+        }
+        return edges;
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
     private Set<JMethod> resolve(Invoke callSite) {
+        return resolve(getResolutionKey(callSite));
+    }
+
+    /**
+     * Resolves the callees of the calls with given key, and caches them.
+     */
+    private Set<JMethod> resolve(ResolutionKey key) {
+        Set<JMethod> methods = resolutionCache.get(key);
+        if (methods == null) {
+            methods = librarySummaries != null &&
+                    !key.declaringClass().isApplication() ?
+                    resolveLibraryCall(key) : resolveByCHA(key);
+            resolutionCache.put(key, methods);
+        }
+        return methods;
+    }
+
+    /**
+     * Resolves a call to a library class with the library call summaries.
+     * Only the callbacks to application classes are resolved freshly
+     * if the call has been summarized.
+     */
+    private Set<JMethod> resolveLibraryCall(ResolutionKey key) {
+        JClass declaringClass = key.declaringClass();
+        Subsignature subsignature = key.subsignature();
+        CallKind kind = key.kind();
+        Set<JMethod> methods = librarySummaries.getLibraryCallees(key);
+        if (methods == null) {
+            methods = resolveByCHA(key);
+            methods.remove(null);
+            librarySummaries.putLibraryCallees(key, methods);
+            return methods;
+        }
+        if (kind == CallKind.VIRTUAL || kind == CallKind.INTERFACE) {
+            for (JClass clazz : applicationClasses) {
+                if (hierarchy.isSubclass(declaringClass, clazz)) {
+                    JMethod method = dispatch(clazz, subsignature);
+                    if (method != null) { methods.add(method); }
+                }
+            }
+        }
+        return methods;
+    }
+
+    private Set<JMethod> resolveByCHA(ResolutionKey key) {
         // TODO - finished
         Set<JMethod> methods = new HashSet<>();
-        MethodRef methodRef = callSite.getMethodRef();
-        Subsignature subsignature = methodRef.getSubsignature();
-        if(callSite.isStatic()){
-            methods.add(methodRef.getDeclaringClass().getDeclaredMethod(subsignature));
+        Subsignature subsignature = key.subsignature();
+        CallKind kind = key.kind();
+        if(kind == CallKind.STATIC){
+            methods.add(key.declaringClass().getDeclaredMethod(subsignature));
 
-        } else if (callSite.isSpecial()) {
-            JMethod res = dispatch(methodRef.getDeclaringClass(), subsignature);
+        } else if (kind == CallKind.SPECIAL) {
+            JMethod res = dispatch(key.declaringClass(), subsignature);
             if(res != null){ methods.add(res); }
 
-        } else if (callSite.isVirtual() || callSite.isInterface()) {
-            ArrayDeque<JClass> classes = new ArrayDeque<>();
-            classes.add(methodRef.getDeclaringClass());
-            while(!classes.isEmpty()){
-                JClass clazz = classes.removeFirst();
+        } else if (kind == CallKind.VIRTUAL || kind == CallKind.INTERFACE) {
+            for (JClass clazz : hierarchy.getAllSubclassesOf(key.declaringClass())) {
                 JMethod method = dispatch(clazz, subsignature);
                 if(method != null){ methods.add(method); }
-
-                if (clazz.isInterface()) {
-                    classes.addAll(hierarchy.getDirectImplementorsOf(clazz));
-                    classes.addAll(hierarchy.getDirectSubinterfacesOf(clazz));
-                } else {
-                    classes.addAll(hierarchy.getDirectSubclassesOf(clazz));
-                }
             }
-
         }
         return methods;
     }
@@ -129,6 +485,17 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      * can be found.
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, Optional<JMethod>> cache = dispatchCache.computeIfAbsent(
+                jclass, c -> Maps.newConcurrentMap());
+        Optional<JMethod> result = cache.get(subsignature);
+        if (result == null) {
+            result = Optional.ofNullable(doDispatch(jclass, subsignature));
+            cache.put(subsignature, result);
+        }
+        return result.orElse(null);
+    }
+
+    private JMethod doDispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finished
         JMethod result = jclass.getDeclaredMethod(subsignature);
         if(result != null && !result.isAbstract()){
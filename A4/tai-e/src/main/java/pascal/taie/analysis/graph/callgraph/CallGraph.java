@@ -23,6 +23,7 @@
 package pascal.taie.analysis.graph.callgraph;
 
 import pascal.taie.analysis.StmtResult;
+import pascal.taie.util.graph.CondensedGraph;
 import pascal.taie.util.graph.Graph;
 
 import java.util.Set;
@@ -107,4 +108,14 @@ public interface CallGraph<CallSite, Method> extends Graph<Method>, StmtResult<S
      * @return true if this call graph contains the given method, otherwise false.
      */
     boolean contains(Method method);
+
+    /**
+     * @return the condensation of this call graph, whose nodes are
+     * the strongly connected components of this call graph.
+     * The components are available in bottom-up (callees first)
+     * and top-down (callers first) orders.
+     */
+    default CondensedGraph<Method> getCondensedGraph() {
+        return new CondensedGraph<>(this);
+    }
 }
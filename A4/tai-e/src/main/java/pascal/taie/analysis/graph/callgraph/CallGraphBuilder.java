@@ -24,14 +24,20 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -46,6 +52,18 @@ public class CallGraphBuilder extends ProgramAnalysis {
      */
     private static final String SEP = " -> ";
 
+    /**
+     * The {@link CHABuilder} that built the call graph of the current
+     * world, which is kept for {@link #addClasses(Collection)}.
+     * It is null if the call graph was built by another algorithm or
+     * loaded from a snapshot.
+     */
+    private static CHABuilder chaBuilder;
+
+    static {
+        World.registerResetCallback(() -> chaBuilder = null);
+    }
+
     private final String algorithm;
 
     public CallGraphBuilder(AnalysisConfig config) {
@@ -55,19 +73,100 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
+        String snapshot = getOptions().getString("snapshot");
+        CallGraph<Invoke, JMethod> callGraph;
+        chaBuilder = null;
+        if (snapshot != null) {
+            // reuse the snapshot only if it is built by the same algorithm
+            // with the same options for the same program, otherwise
+            // rebuild and overwrite it
+            Path path = Path.of(snapshot);
+            String options = getSnapshotOptions();
+            byte[] fingerprint = CallGraphSnapshot.fingerprint();
+            callGraph = Files.exists(path)
+                    ? CallGraphSnapshot.load(path, algorithm, options, fingerprint)
+                    : null;
+            if (callGraph == null) {
+                callGraph = build();
+                CallGraphSnapshot.write(callGraph, path, algorithm, options, fingerprint);
+            }
+        } else {
+            callGraph = build();
+        }
+        takeAction(callGraph);
+        return callGraph;
+    }
+
+    /**
+     * @return the options of the building algorithm that the call graph
+     * depends on, which are stored in the header of snapshots.
+     * Options that only change how the same call graph is built,
+     * e.g., parallel, are excluded.
+     */
+    private String getSnapshotOptions() {
+        return algorithm.equals("cha") ?
+                "library-summary:" + getOptions().getString("library-summary") :
+                "";
+    }
+
+    private CallGraph<Invoke, JMethod> build() {
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            builder = new CHABuilder(
+                    getOptions().getBooleanOrDefault("parallel", false),
+                    getOptions().getString("library-summary"));
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
+        // all classes have been added when building call graph
+        freezeClassHierarchy();
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
-        takeAction(callGraph);
+        if (builder instanceof CHABuilder cha) {
+            chaBuilder = cha;
+        }
+        return freeze(callGraph);
+    }
+
+    /**
+     * Adds given classes to the class hierarchy of the current world,
+     * and updates the call graph built by CHA in this run incrementally,
+     * i.e., without rebuilding it (see {@link CHABuilder#update(Collection)}).
+     * The updated call graph replaces the result of this analysis.
+     *
+     * @return the updated call graph.
+     * @throws AnalysisException if the call graph of the current world
+     *                           was not built by CHA in this run.
+     */
+    public static CallGraph<Invoke, JMethod> addClasses(Collection<JClass> newClasses) {
+        if (chaBuilder == null) {
+            throw new AnalysisException("Only the call graph built by CHA" +
+                    " (not loaded from a snapshot) can be updated");
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        newClasses.forEach(hierarchy::addClass);
+        freezeClassHierarchy();
+        ClassHierarchyImpl.setCheckCHA(true);
+        CallGraph<Invoke, JMethod> callGraph = freeze(chaBuilder.update(newClasses));
+        ClassHierarchyImpl.setCheckCHA(false);
+        World.get().storeResult(ID, callGraph);
         return callGraph;
     }
 
+    private static void freezeClassHierarchy() {
+        if (World.get().getClassHierarchy() instanceof ClassHierarchyImpl hierarchy) {
+            hierarchy.freeze();
+        }
+    }
+
+    private static CallGraph<Invoke, JMethod> freeze(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg ?
+                cg.freeze() : callGraph;
+    }
+
     private void takeAction(CallGraph<Invoke, JMethod> callGraph) {
         String action = getOptions().getString("action");
         if (action == null) {
@@ -0,0 +1,307 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes call graphs in a compact binary format, so that
+ * a call graph can be reused by later runs on the same program
+ * without being rebuilt.
+ * <p>
+ * A snapshot consists of the following sections, in which all integers
+ * are 4-byte big-endian values.
+ * <ol>
+ *     <li>Magic number and format version.</li>
+ *     <li>Header: the call graph building algorithm and its options
+ *     (each as length in bytes followed by its UTF-8 bytes) and the
+ *     fingerprint of the program (length followed by its bytes),
+ *     see {@link #fingerprint()}.</li>
+ *     <li>String table: each string is stored as its length in bytes
+ *     followed by its UTF-8 bytes. Class names and subsignatures are
+ *     interned in this table.</li>
+ *     <li>Method table: the class name and subsignature (both indexes
+ *     of the string table) of each method. Methods are identified
+ *     by their indexes in this table.</li>
+ *     <li>Indexes of entry methods.</li>
+ *     <li>Call sites: the call sites of method {@code m} are numbered
+ *     [{@code starts[m]}, {@code starts[m + 1]}), followed by the
+ *     index of each call site in the IR of its container.</li>
+ *     <li>Out edges in CSR form: number of edges, start of the edges
+ *     of each call site, then the callee of each edge.</li>
+ *     <li>In edges in CSR form: start of the edges of each callee,
+ *     then the call site of each edge.</li>
+ *     <li>Call kinds of out edges and in edges, one byte per edge.</li>
+ * </ol>
+ *
+ * @see MappedCallGraph
+ */
+public final class CallGraphSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphSnapshot.class);
+
+    static final int MAGIC = 0x54434753; // "TCGS"
+
+    static final int VERSION = 3;
+
+    private CallGraphSnapshot() {
+    }
+
+    /**
+     * Computes the fingerprint of the program in the current world.
+     * It covers the class hierarchy (each class with its super types
+     * and declared methods) and the IR of the application methods, which
+     * are what the call graph depends on; the bodies of library methods
+     * are assumed to be unchanged for the same library classes.
+     */
+    public static byte[] fingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException("SHA-256 is not available", e);
+        }
+        World.get()
+                .getClassHierarchy()
+                .allClasses()
+                .sorted(Comparator.comparing(JClass::getName))
+                .forEach(jclass -> {
+                    update(digest, jclass.getName());
+                    if (jclass.getSuperClass() != null) {
+                        update(digest, jclass.getSuperClass().getName());
+                    }
+                    jclass.getInterfaces().forEach(i -> update(digest, i.getName()));
+                    jclass.getDeclaredMethods()
+                            .stream()
+                            .sorted(Comparator.comparing(m -> m.getSubsignature().toString()))
+                            .forEach(method -> {
+                                update(digest, method.getSubsignature().toString());
+                                if (jclass.isApplication() &&
+                                        !method.isAbstract() && !method.isNative()) {
+                                    method.getIR().forEach(stmt ->
+                                            update(digest, IRPrinter.toString(stmt)));
+                                }
+                            });
+                });
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    /**
+     * Writes given call graph to a snapshot file.
+     *
+     * @param algorithm   the algorithm that built the call graph
+     * @param options     the options of the algorithm that affect the call graph
+     * @param fingerprint the fingerprint of the program
+     */
+    public static void write(CallGraph<Invoke, JMethod> callGraph, Path path,
+                             String algorithm, String options, byte[] fingerprint) {
+        logger.info("Writing call graph snapshot to {} ...", path);
+        // intern strings and number methods
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIds = Maps.newMap();
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        Map<JMethod, Integer> methodIds = Maps.newMap(methods.size());
+        int[] methodTable = new int[methods.size() * 2];
+        for (int m = 0; m < methods.size(); ++m) {
+            JMethod method = methods.get(m);
+            methodIds.put(method, m);
+            methodTable[2 * m] = intern(method.getDeclaringClass().getName(),
+                    strings, stringIds);
+            methodTable[2 * m + 1] = intern(method.getSubsignature().toString(),
+                    strings, stringIds);
+        }
+        // number call sites in the order of their indexes
+        List<Invoke> callSites = new ArrayList<>();
+        Map<Invoke, Integer> callSiteIds = Maps.newMap();
+        int[] callSiteStarts = new int[methods.size() + 1];
+        for (int m = 0; m < methods.size(); ++m) {
+            callSiteStarts[m] = callSites.size();
+            callGraph.callSitesIn(methods.get(m))
+                    .sorted(Comparator.comparingInt(Invoke::getIndex))
+                    .forEach(callSite -> {
+                        callSiteIds.put(callSite, callSites.size());
+                        callSites.add(callSite);
+                    });
+        }
+        callSiteStarts[methods.size()] = callSites.size();
+        // collect edges
+        List<Edge<Invoke, JMethod>> outEdges = new ArrayList<>();
+        int[] outStarts = new int[callSites.size() + 1];
+        for (int cs = 0; cs < callSites.size(); ++cs) {
+            outStarts[cs] = outEdges.size();
+            callGraph.edgesOutOf(callSites.get(cs)).forEach(outEdges::add);
+        }
+        outStarts[callSites.size()] = outEdges.size();
+        List<Edge<Invoke, JMethod>> inEdges = new ArrayList<>(outEdges.size());
+        int[] inStarts = new int[methods.size() + 1];
+        for (int m = 0; m < methods.size(); ++m) {
+            inStarts[m] = inEdges.size();
+            callGraph.edgesInTo(methods.get(m)).forEach(inEdges::add);
+        }
+        inStarts[methods.size()] = inEdges.size();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeBytes(out, algorithm.getBytes(StandardCharsets.UTF_8));
+            writeBytes(out, options.getBytes(StandardCharsets.UTF_8));
+            writeBytes(out, fingerprint);
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                writeBytes(out, s.getBytes(StandardCharsets.UTF_8));
+            }
+            out.writeInt(methods.size());
+            writeInts(out, methodTable);
+            List<JMethod> entries = callGraph.entryMethods().toList();
+            out.writeInt(entries.size());
+            for (JMethod entry : entries) {
+                out.writeInt(methodIds.get(entry));
+            }
+            writeInts(out, callSiteStarts);
+            for (Invoke callSite : callSites) {
+                out.writeInt(callSite.getIndex());
+            }
+            out.writeInt(outEdges.size());
+            writeInts(out, outStarts);
+            for (Edge<Invoke, JMethod> edge : outEdges) {
+                out.writeInt(methodIds.get(edge.getCallee()));
+            }
+            writeInts(out, inStarts);
+            for (Edge<Invoke, JMethod> edge : inEdges) {
+                out.writeInt(callSiteIds.get(edge.getCallSite()));
+            }
+            for (Edge<Invoke, JMethod> edge : outEdges) {
+                out.writeByte(edge.getKind().ordinal());
+            }
+            for (Edge<Invoke, JMethod> edge : inEdges) {
+                out.writeByte(edge.getKind().ordinal());
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write call graph snapshot to " + path, e);
+        }
+    }
+
+    private static int intern(String s, List<String> strings,
+                              Map<String, Integer> stringIds) {
+        return stringIds.computeIfAbsent(s, k -> {
+            strings.add(k);
+            return strings.size() - 1;
+        });
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints) throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    /**
+     * Loads a call graph from a snapshot file. The file is memory-mapped,
+     * and the methods in the snapshot are resolved in the current world.
+     *
+     * @param algorithm   the expected call graph building algorithm
+     * @param options     the expected options of the algorithm
+     * @param fingerprint the fingerprint of the current program
+     * @return a read-only call graph backed by the snapshot, or null if
+     * the snapshot was written by an older format, by another algorithm
+     * or with other options, or for a different program, in which case
+     * it should be rebuilt.
+     */
+    public static CallGraph<Invoke, JMethod> load(Path path, String algorithm,
+                                                  String options, byte[] fingerprint) {
+        logger.info("Loading call graph snapshot from {} ...", path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping remains valid after the channel is closed
+            ByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new AnalysisException("Invalid call graph snapshot: " + path);
+            }
+            if (buffer.getInt() != VERSION) {
+                logger.info("Snapshot {} has an outdated format, ignore it", path);
+                return null;
+            }
+            String snapshotAlgorithm = new String(readBytes(buffer), StandardCharsets.UTF_8);
+            if (!snapshotAlgorithm.equals(algorithm)) {
+                logger.info("Snapshot {} is built by {} instead of {}, ignore it",
+                        path, snapshotAlgorithm, algorithm);
+                return null;
+            }
+            String snapshotOptions = new String(readBytes(buffer), StandardCharsets.UTF_8);
+            if (!snapshotOptions.equals(options)) {
+                logger.info("Snapshot {} is built with options [{}] instead of [{}]," +
+                        " ignore it", path, snapshotOptions, options);
+                return null;
+            }
+            if (!Arrays.equals(readBytes(buffer), fingerprint)) {
+                logger.info("Snapshot {} is built for a different program, ignore it",
+                        path);
+                return null;
+            }
+            return new MappedCallGraph(buffer);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read call graph snapshot from " + path, e);
+        }
+    }
+
+    static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -40,7 +40,9 @@ import pascal.taie.util.MapIDProvider;
 import pascal.taie.util.graph.DotDumper;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.Queue;
 import java.util.stream.Collectors;
 
 /**
@@ -100,4 +102,42 @@ public final class CallGraphs {
         return invoke.getContainer() + IRPrinter.toString(invoke);
     }
 
+    /**
+     * @return the sub-graph of given call graph that contains only the
+     * methods of application classes which are reachable from the
+     * application entry methods via calls among application methods.
+     * The calls to library methods are cut.
+     */
+    public static CallGraph<Invoke, JMethod> getApplicationCallGraph(
+            CallGraph<Invoke, JMethod> callGraph) {
+        DefaultCallGraph appCallGraph = new DefaultCallGraph();
+        Queue<JMethod> workList = new ArrayDeque<>();
+        callGraph.entryMethods()
+                .filter(CallGraphs::isApplication)
+                .forEach(entry -> {
+                    appCallGraph.addEntryMethod(entry);
+                    workList.add(entry);
+                });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (appCallGraph.addReachableMethod(method)) {
+                callGraph.getCallSitesIn(method).forEach(callSite ->
+                        callGraph.edgesOutOf(callSite)
+                                .filter(edge -> isApplication(edge.getCallee()))
+                                .forEach(edge -> {
+                                    appCallGraph.addEdge(edge);
+                                    workList.add(edge.getCallee());
+                                }));
+            }
+        }
+        return appCallGraph;
+    }
+
+    /**
+     * @return true if given method is declared in an application class.
+     */
+    public static boolean isApplication(JMethod method) {
+        return method.getDeclaringClass().isApplication();
+    }
+
 }
@@ -26,6 +26,7 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -51,8 +52,7 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
             if (!method.isAbstract()) {
                 method.getIR().forEach(stmt -> {
                     if (stmt instanceof Invoke invoke) {
-                        callSiteToContainer.put(invoke, method);
-                        callSitesIn.put(method, invoke);
+                        addCallSite(method, invoke);
                     }
                 });
             }
@@ -61,6 +61,27 @@ public class DefaultCallGraph extends AbstractCallGraph<Invoke, JMethod> {
         return false;
     }
 
+    /**
+     * Adds a reachable method and given call sites in it to this call graph.
+     * The call sites must be all invocations in the method, e.g., given by
+     * the library call summaries.
+     *
+     * @return true if this call graph changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean addReachableMethod(JMethod method, Collection<Invoke> callSites) {
+        if (reachableMethods.add(method)) {
+            callSites.forEach(invoke -> addCallSite(method, invoke));
+            return true;
+        }
+        return false;
+    }
+
+    private void addCallSite(JMethod method, Invoke invoke) {
+        callSiteToContainer.put(invoke, method);
+        callSitesIn.put(method, invoke);
+    }
+
     /**
      * Adds a new call graph edge to this call graph.
      *
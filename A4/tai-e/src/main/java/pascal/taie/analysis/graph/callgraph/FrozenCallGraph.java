@@ -0,0 +1,483 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.CondensedGraph;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Read-only call graph whose methods and call sites are renumbered
+ * densely, and whose adjacency is stored in int-indexed arrays
+ * (in compressed sparse row form).
+ * <p>
+ * All queries are answered by the arrays built at construction,
+ * and the returned sets are views created once and shared by all
+ * queries, thus querying this call graph does not allocate.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ * @see AbstractCallGraph#freeze()
+ */
+class FrozenCallGraph<CallSite, Method> implements CallGraph<CallSite, Method> {
+
+    private final Object[] methods;
+
+    private final Map<Object, Integer> methodIds;
+
+    private final Object[] callSites;
+
+    private final Map<Object, Integer> callSiteIds;
+
+    /**
+     * Call sites of method {@code m} are numbered
+     * [{@code callSiteStarts[m]}, {@code callSiteStarts[m + 1]}).
+     */
+    private final int[] callSiteStarts;
+
+    /**
+     * Id of the method that contains each call site.
+     */
+    private final int[] containers;
+
+    /**
+     * Call edges, grouped by call sites.
+     */
+    private final Edge<CallSite, Method>[] outEdges;
+
+    private final int[] outEdgeStarts;
+
+    /**
+     * Call edges, grouped by callees.
+     */
+    private final Edge<CallSite, Method>[] inEdges;
+
+    private final int[] inEdgeStarts;
+
+    private final Object[] entryMethods;
+
+    private final int numberOfEdges;
+
+    // cached views
+
+    private final Set<Method> nodes;
+
+    private final Set<Method>[] calleesOfCS;
+
+    private final Set<CallSite>[] callersOf;
+
+    private final Set<CallSite>[] callSitesIn;
+
+    private final Set<Method>[] succs;
+
+    private final Set<Method>[] preds;
+
+    private final Set<MethodEdge<CallSite, Method>>[] outMethodEdges;
+
+    private final Set<MethodEdge<CallSite, Method>>[] inMethodEdges;
+
+    /**
+     * Lazily computed condensation, cached as this call graph is immutable.
+     */
+    private volatile CondensedGraph<Method> condensedGraph;
+
+    @SuppressWarnings("unchecked")
+    FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        // number methods
+        methods = callGraph.reachableMethods().toArray();
+        int nMethods = methods.length;
+        methodIds = Maps.newMap(nMethods);
+        for (int i = 0; i < nMethods; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        entryMethods = callGraph.entryMethods().toArray();
+        // number call sites, grouped by their containers
+        List<Object> callSiteList = new ArrayList<>();
+        callSiteStarts = new int[nMethods + 1];
+        for (int m = 0; m < nMethods; ++m) {
+            callSiteStarts[m] = callSiteList.size();
+            callSiteList.addAll(callGraph.getCallSitesIn((Method) methods[m]));
+        }
+        callSiteStarts[nMethods] = callSiteList.size();
+        callSites = callSiteList.toArray();
+        int nCallSites = callSites.length;
+        callSiteIds = Maps.newMap(nCallSites);
+        containers = new int[nCallSites];
+        for (int m = 0; m < nMethods; ++m) {
+            for (int cs = callSiteStarts[m]; cs < callSiteStarts[m + 1]; ++cs) {
+                callSiteIds.put(callSites[cs], cs);
+                containers[cs] = m;
+            }
+        }
+        // store call edges, grouped by call sites and by callees
+        List<Edge<CallSite, Method>> edgeList = new ArrayList<>();
+        outEdgeStarts = new int[nCallSites + 1];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            outEdgeStarts[cs] = edgeList.size();
+            callGraph.edgesOutOf((CallSite) callSites[cs])
+                    .sorted(Comparator.comparingInt(e -> methodIds.get(e.getCallee())))
+                    .forEach(edgeList::add);
+        }
+        outEdgeStarts[nCallSites] = edgeList.size();
+        outEdges = edgeList.toArray(newEdgeArray(0));
+        numberOfEdges = outEdges.length;
+        inEdges = Arrays.copyOf(outEdges, numberOfEdges);
+        // stable sort keeps the edges of each callee ordered by call sites
+        Arrays.sort(inEdges, Comparator.comparingInt(e -> methodIds.get(e.getCallee())));
+        inEdgeStarts = new int[nMethods + 1];
+        for (Edge<CallSite, Method> edge : inEdges) {
+            ++inEdgeStarts[methodIds.get(edge.getCallee()) + 1];
+        }
+        for (int m = 0; m < nMethods; ++m) {
+            inEdgeStarts[m + 1] += inEdgeStarts[m];
+        }
+        // build cached views
+        nodes = new IdSet<>(methods, methodIds, null, 0, nMethods);
+        calleesOfCS = newSetArray(nCallSites);
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            int[] callees = distinct(outEdges, outEdgeStarts[cs],
+                    outEdgeStarts[cs + 1], e -> methodIds.get(e.getCallee()));
+            calleesOfCS[cs] = new IdSet<>(methods, methodIds, callees, 0, callees.length);
+        }
+        callersOf = newSetArray(nMethods);
+        callSitesIn = newSetArray(nMethods);
+        succs = newSetArray(nMethods);
+        preds = newSetArray(nMethods);
+        outMethodEdges = newSetArray(nMethods);
+        inMethodEdges = newSetArray(nMethods);
+        for (int m = 0; m < nMethods; ++m) {
+            Method method = (Method) methods[m];
+            int[] callers = distinct(inEdges, inEdgeStarts[m],
+                    inEdgeStarts[m + 1], e -> callSiteIds.get(e.getCallSite()));
+            callersOf[m] = new IdSet<>(callSites, callSiteIds, callers, 0, callers.length);
+            callSitesIn[m] = new IdSet<>(callSites, callSiteIds, null,
+                    callSiteStarts[m], callSiteStarts[m + 1]);
+            int[] succIds = distinct(outEdges, outEdgeStarts[callSiteStarts[m]],
+                    outEdgeStarts[callSiteStarts[m + 1]], e -> methodIds.get(e.getCallee()));
+            succs[m] = new IdSet<>(methods, methodIds, succIds, 0, succIds.length);
+            int[] predIds = distinct(inEdges, inEdgeStarts[m], inEdgeStarts[m + 1],
+                    e -> containers[callSiteIds.get(e.getCallSite())]);
+            preds[m] = new IdSet<>(methods, methodIds, predIds, 0, predIds.length);
+            List<MethodEdge<CallSite, Method>> out = new ArrayList<>();
+            for (int cs = callSiteStarts[m]; cs < callSiteStarts[m + 1]; ++cs) {
+                for (Method callee : calleesOfCS[cs]) {
+                    out.add(new MethodEdge<>(method, callee, (CallSite) callSites[cs]));
+                }
+            }
+            outMethodEdges[m] = new ArrayView<>(out.toArray());
+            Object[] in = new Object[callers.length];
+            for (int i = 0; i < callers.length; ++i) {
+                in[i] = new MethodEdge<>((Method) methods[containers[callers[i]]],
+                        method, (CallSite) callSites[callers[i]]);
+            }
+            inMethodEdges[m] = new ArrayView<>(in);
+        }
+    }
+
+    /**
+     * @return the sorted distinct ids of edges[from, to) given by {@code id}.
+     */
+    private static <E> int[] distinct(E[] edges, int from, int to,
+                                      ToIntFunction<E> id) {
+        int[] ids = new int[to - from];
+        for (int i = from; i < to; ++i) {
+            ids[i - from] = id.applyAsInt(edges[i]);
+        }
+        Arrays.sort(ids);
+        int n = 0;
+        for (int i = 0; i < ids.length; ++i) {
+            if (n == 0 || ids[n - 1] != ids[i]) {
+                ids[n++] = ids[i];
+            }
+        }
+        return n == ids.length ? ids : Arrays.copyOf(ids, n);
+    }
+
+    /**
+     * Generic array creation is not allowed, so creates the array of
+     * wildcard type; it only holds values of the given element type.
+     */
+    @SuppressWarnings("unchecked")
+    private static <CS, M> Edge<CS, M>[] newEdgeArray(int length) {
+        return (Edge<CS, M>[]) new Edge<?, ?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Set<E>[] newSetArray(int length) {
+        return (Set<E>[]) new Set<?>[length];
+    }
+
+    private Integer methodId(Method method) {
+        return methodIds.get(method);
+    }
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        Integer m = methodId(callee);
+        return m != null ? callersOf[m] : Set.of();
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        return cs != null ? calleesOfCS[cs] : Set.of();
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Method getContainerOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        return cs != null ? (Method) methods[containers[cs]] : null;
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        Integer m = methodId(method);
+        return m != null ? callSitesIn[m] : Set.of();
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        Integer cs = callSiteIds.get(callSite);
+        return cs != null
+                ? Arrays.stream(outEdges, outEdgeStarts[cs], outEdgeStarts[cs + 1])
+                : Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        Integer m = methodId(method);
+        return m != null
+                ? Arrays.stream(inEdges, inEdgeStarts[m], inEdgeStarts[m + 1])
+                : Stream.of();
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return Arrays.stream(outEdges);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<Method> entryMethods() {
+        return Arrays.stream(entryMethods).map(m -> (Method) m);
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return nodes.stream();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        return methodIds.containsKey(method);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIds.containsKey(stmt);
+    }
+
+    @Override
+    public Set<Method> getResult(Stmt stmt) {
+        Integer cs = callSiteIds.get(stmt);
+        return cs != null ? calleesOfCS[cs] : Set.of();
+    }
+
+    @Override
+    public CondensedGraph<Method> getCondensedGraph() {
+        CondensedGraph<Method> result = condensedGraph;
+        if (result == null) {
+            synchronized (this) {
+                result = condensedGraph;
+                if (result == null) {
+                    result = new CondensedGraph<>(this);
+                    condensedGraph = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(Method node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Method source, Method target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        Integer m = methodId(method);
+        return m != null ? inMethodEdges[m] : Set.of();
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        Integer m = methodId(method);
+        return m != null ? outMethodEdges[m] : Set.of();
+    }
+
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        Integer m = methodId(node);
+        return m != null ? preds[m] : Set.of();
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        Integer m = methodId(node);
+        return m != null ? succs[m] : Set.of();
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return methods.length;
+    }
+
+    /**
+     * Unmodifiable set view of the elements whose ids are
+     * {@code ids[from, to)} (sorted), or [from, to) if {@code ids} is null.
+     */
+    private static class IdSet<E> extends AbstractSet<E> {
+
+        private final Object[] elements;
+
+        private final Map<Object, Integer> elementIds;
+
+        private final int[] ids;
+
+        private final int from;
+
+        private final int to;
+
+        private IdSet(Object[] elements, Map<Object, Integer> elementIds,
+                      int[] ids, int from, int to) {
+            this.elements = elements;
+            this.elementIds = elementIds;
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = elementIds.get(o);
+            if (id == null) {
+                return false;
+            }
+            return ids == null
+                    ? from <= id && id < to
+                    : Arrays.binarySearch(ids, from, to, id) >= 0;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = ids == null ? i : ids[i];
+                    ++i;
+                    return (E) elements[id];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Unmodifiable set view of an array of distinct elements.
+     */
+    private static class ArrayView<E> extends AbstractSet<E> {
+
+        private final Object[] elements;
+
+        private ArrayView(Object[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Iterator<E> iterator() {
+            return (Iterator<E>) Arrays.asList(elements).iterator();
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CHABuilder.ResolutionKey;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed CHA resolution results of the calls to library classes,
+ * which are stored on disk and reused by later runs on the same library
+ * (e.g., the same JDK).
+ * <p>
+ * For each call to a library class, only the library callees are stored.
+ * They are determined by the library alone: a library method can be
+ * dispatched only on library classes, or on application classes that
+ * inherit it from library classes. The callees in application classes,
+ * i.e., the callbacks of virtual and interface calls, are resolved
+ * freshly for each program.
+ * <p>
+ * For each library method, its call sites are stored as well, i.e., the
+ * library-internal fragment of the call graph: the index of each invoke
+ * statement in the IR of the method, and the call that it makes. The call
+ * sites and call edges of a summarized library method are then spliced
+ * into the call graph without resolving its calls again.
+ * <p>
+ * The first line of the file is the fingerprint of the library classes
+ * ({@code # library <fingerprint>}), and the summaries are discarded
+ * if the fingerprint does not match the loaded library, e.g., when a
+ * library subclass that the summaries do not know of is loaded.
+ * Each other line is either a call, in the form of
+ * {@code CALL \t kind \t declaring class \t subsignature [\t callee signature]*},
+ * or the calls in a method, in the form of
+ * {@code METHOD \t signature [\t index \t kind \t declaring class \t subsignature]*},
+ * where kind, declaring class and subsignature are {@code -} for the call
+ * sites that are not resolved by CHA, e.g., invokedynamic.
+ * Summaries computed freshly in a run are added to the file after the run.
+ */
+class LibraryCallSummaries {
+
+    private static final Logger logger = LogManager.getLogger(LibraryCallSummaries.class);
+
+    private static final String SEP = "\t";
+
+    private static final String HEADER = "# library ";
+
+    private static final String CALL = "CALL";
+
+    private static final String METHOD = "METHOD";
+
+    private static final String NO_CALL = "-";
+
+    private final Path path;
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Fingerprint of the library classes in {@link #hierarchy}.
+     */
+    private final String fingerprint;
+
+    /**
+     * Map from calls to signatures of their library callees.
+     */
+    private final Map<String, List<String>> summaries = Maps.newConcurrentMap();
+
+    /**
+     * Map from signatures of library methods to their call sites.
+     */
+    private final Map<String, List<String>> methodSummaries = Maps.newConcurrentMap();
+
+    private volatile boolean changed = false;
+
+    LibraryCallSummaries(Path path, ClassHierarchy hierarchy) {
+        this.path = path;
+        this.hierarchy = hierarchy;
+        this.fingerprint = computeFingerprint(hierarchy);
+        if (Files.exists(path)) {
+            read();
+        }
+    }
+
+    /**
+     * @return the SHA-256 digest of the sorted names of library classes.
+     */
+    private static String computeFingerprint(ClassHierarchy hierarchy) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            hierarchy.allClasses()
+                    .filter(c -> !c.isApplication())
+                    .map(JClass::getName)
+                    .sorted()
+                    .forEach(name -> digest.update(
+                            (name + "\n").getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException("SHA-256 is not available", e);
+        }
+    }
+
+    private void read() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read library call summaries from " + path, e);
+        }
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER + fingerprint)) {
+            logger.info("Library call summaries in {} are computed for" +
+                    " different library classes, ignore them", path);
+            changed = true; // overwrite the file after this run
+            return;
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] parts = line.split(SEP);
+            if (parts[0].equals(CALL) && parts.length >= 4) {
+                summaries.put(String.join(SEP, parts[1], parts[2], parts[3]),
+                        List.of(Arrays.copyOfRange(parts, 4, parts.length)));
+            } else if (parts[0].equals(METHOD) && parts.length >= 2 &&
+                    (parts.length - 2) % 4 == 0) {
+                List<String> callSites = new ArrayList<>();
+                for (int i = 2; i < parts.length; i += 4) {
+                    callSites.add(String.join(SEP, Arrays.copyOfRange(parts, i, i + 4)));
+                }
+                methodSummaries.put(parts[1], callSites);
+            } else {
+                throw new AnalysisException("Invalid library call summary: " + line);
+            }
+        }
+        logger.info("Loaded {} library call summaries and {} library method" +
+                        " summaries from {}", summaries.size(),
+                methodSummaries.size(), path);
+    }
+
+    private static String toKey(ResolutionKey key) {
+        return String.join(SEP, key.kind().name(), key.declaringClass().getName(),
+                key.subsignature().toString());
+    }
+
+    /**
+     * @return the library callees of given call, or null if the call
+     * has not been summarized or its summary does not match the library.
+     */
+    @Nullable
+    Set<JMethod> getLibraryCallees(ResolutionKey key) {
+        List<String> signatures = summaries.get(toKey(key));
+        if (signatures == null) {
+            return null;
+        }
+        Set<JMethod> callees = Sets.newHybridSet();
+        for (String signature : signatures) {
+            JClass jclass = hierarchy.getClass(StringReps.getClassNameOf(signature));
+            JMethod callee = jclass == null ? null : jclass.getDeclaredMethod(
+                    Subsignature.get(StringReps.getSubsignatureOf(signature)));
+            if (callee == null) { // stale summary
+                return null;
+            }
+            callees.add(callee);
+        }
+        return callees;
+    }
+
+    /**
+     * Records the library callees of given call.
+     */
+    void putLibraryCallees(ResolutionKey key, Set<JMethod> callees) {
+        summaries.put(toKey(key), callees.stream()
+                .filter(m -> !m.getDeclaringClass().isApplication())
+                .map(JMethod::getSignature)
+                .sorted()
+                .toList());
+        changed = true;
+    }
+
+    /**
+     * @return the call sites in given library method, or null if the method
+     * has not been summarized or its summary does not match the library.
+     */
+    @Nullable
+    List<CallSite> getCallSitesIn(JMethod method) {
+        List<String> callSites = methodSummaries.get(method.getSignature());
+        if (callSites == null) {
+            return null;
+        }
+        List<CallSite> result = new ArrayList<>(callSites.size());
+        for (String callSite : callSites) {
+            String[] parts = callSite.split(SEP);
+            int index = Integer.parseInt(parts[0]);
+            if (parts[1].equals(NO_CALL)) {
+                result.add(new CallSite(index, null));
+                continue;
+            }
+            JClass declaringClass = hierarchy.getClass(parts[2]);
+            if (declaringClass == null) { // stale summary
+                return null;
+            }
+            result.add(new CallSite(index, new ResolutionKey(declaringClass,
+                    Subsignature.get(parts[3]), CallKind.valueOf(parts[1]))));
+        }
+        return result;
+    }
+
+    /**
+     * Records the call sites in given library method.
+     */
+    void putCallSitesIn(JMethod method, Collection<CallSite> callSites) {
+        List<String> summary = callSites.stream()
+                .map(callSite -> callSite.index() + SEP + (callSite.key() == null ?
+                        String.join(SEP, NO_CALL, NO_CALL, NO_CALL) :
+                        toKey(callSite.key())))
+                .toList();
+        if (!summary.equals(methodSummaries.put(method.getSignature(), summary))) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the summaries back to the file if new calls were summarized.
+     */
+    void save() {
+        if (!changed) {
+            return;
+        }
+        logger.info("Writing {} library call summaries and {} library method" +
+                        " summaries to {}", summaries.size(),
+                methodSummaries.size(), path);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            out.println(HEADER + fingerprint);
+            summaries.keySet().stream().sorted().forEach(key -> {
+                StringBuilder line = new StringBuilder(CALL).append(SEP).append(key);
+                summaries.get(key).forEach(s -> line.append(SEP).append(s));
+                out.println(line);
+            });
+            methodSummaries.keySet().stream().sorted().forEach(signature -> {
+                StringBuilder line = new StringBuilder(METHOD).append(SEP).append(signature);
+                methodSummaries.get(signature).forEach(s -> line.append(SEP).append(s));
+                out.println(line);
+            });
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write library call summaries to " + path, e);
+        }
+        changed = false;
+    }
+
+    /**
+     * A call site in a summarized library method.
+     *
+     * @param index the index of the invoke statement in the IR of the method
+     * @param key   the call made by the call site, or null if the call
+     *              is not resolved by CHA, e.g., invokedynamic
+     */
+    record CallSite(int index, @Nullable ResolutionKey key) {
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only call graph backed by a memory-mapped snapshot file.
+ * The string and method tables are decoded when the snapshot is loaded,
+ * while the call sites and edges are read from the mapped buffer on
+ * demand, and the call sites are resolved in the IR of their containers.
+ *
+ * @see CallGraphSnapshot
+ */
+class MappedCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds;
+
+    private final int[] entries;
+
+    private final IntBuffer callSiteStarts;
+
+    private final IntBuffer callSiteIndexes;
+
+    private final int numberOfEdges;
+
+    private final IntBuffer outStarts;
+
+    private final IntBuffer outCallees;
+
+    private final IntBuffer inStarts;
+
+    private final IntBuffer inCallSites;
+
+    private final ByteBuffer outKinds;
+
+    private final ByteBuffer inKinds;
+
+    /**
+     * @param buffer the snapshot whose position is after the header,
+     *               which has been checked by {@link CallGraphSnapshot}.
+     */
+    MappedCallGraph(ByteBuffer buffer) {
+        String[] strings = new String[buffer.getInt()];
+        for (int i = 0; i < strings.length; ++i) {
+            strings[i] = new String(CallGraphSnapshot.readBytes(buffer),
+                    StandardCharsets.UTF_8);
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        methods = new JMethod[buffer.getInt()];
+        methodIds = Maps.newMap(methods.length);
+        for (int m = 0; m < methods.length; ++m) {
+            String className = strings[buffer.getInt()];
+            String subsignature = strings[buffer.getInt()];
+            JClass jclass = hierarchy.getClass(className);
+            JMethod method = jclass == null ? null :
+                    jclass.getDeclaredMethod(Subsignature.get(subsignature));
+            if (method == null) {
+                throw new AnalysisException("Call graph snapshot does not match" +
+                        " the program, cannot find method <" + className +
+                        ": " + subsignature + ">");
+            }
+            methods[m] = method;
+            methodIds.put(method, m);
+        }
+        entries = new int[buffer.getInt()];
+        for (int i = 0; i < entries.length; ++i) {
+            entries[i] = buffer.getInt();
+        }
+        callSiteStarts = ints(buffer, methods.length + 1);
+        int numberOfCallSites = callSiteStarts.get(methods.length);
+        callSiteIndexes = ints(buffer, numberOfCallSites);
+        numberOfEdges = buffer.getInt();
+        outStarts = ints(buffer, numberOfCallSites + 1);
+        outCallees = ints(buffer, numberOfEdges);
+        inStarts = ints(buffer, methods.length + 1);
+        inCallSites = ints(buffer, numberOfEdges);
+        outKinds = bytes(buffer, numberOfEdges);
+        inKinds = bytes(buffer, numberOfEdges);
+    }
+
+    /**
+     * @return a view of the next n ints of the buffer, and moves the
+     * position of the buffer after them.
+     */
+    private static IntBuffer ints(ByteBuffer buffer, int n) {
+        IntBuffer result = buffer.slice().limit(n * Integer.BYTES).asIntBuffer();
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        return result;
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buffer, int n) {
+        ByteBuffer result = buffer.slice().limit(n);
+        buffer.position(buffer.position() + n);
+        return result;
+    }
+
+    private int methodId(JMethod method) {
+        Integer m = methodIds.get(method);
+        return m != null ? m : -1;
+    }
+
+    /**
+     * @return the id of given call site, or -1 if it is not in this call graph.
+     */
+    private int callSiteId(Invoke callSite) {
+        int m = methodId(callSite.getContainer());
+        if (m == -1) {
+            return -1;
+        }
+        int from = callSiteStarts.get(m), to = callSiteStarts.get(m + 1);
+        int index = callSite.getIndex();
+        // call sites of each method are sorted by their indexes
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            int midIndex = callSiteIndexes.get(mid);
+            if (midIndex < index) {
+                from = mid + 1;
+            } else if (midIndex > index) {
+                to = mid;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private Invoke callSite(int cs) {
+        JMethod container = methods[containerId(cs)];
+        if (container.getIR().getStmt(callSiteIndexes.get(cs)) instanceof Invoke invoke) {
+            return invoke;
+        }
+        throw new AnalysisException("Call graph snapshot does not match" +
+                " the program, cannot find call site " + callSiteIndexes.get(cs) +
+                " in " + container);
+    }
+
+    private int containerId(int cs) {
+        // find the last method whose call sites start before or at cs,
+        // methods without call sites share the start of the next method
+        int from = 0, to = methods.length;
+        while (to - from > 1) {
+            int mid = (from + to) >>> 1;
+            if (callSiteStarts.get(mid) <= cs) {
+                from = mid;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    private Edge<Invoke, JMethod> outEdge(int e, int cs) {
+        return new Edge<>(KINDS[outKinds.get(e)], callSite(cs),
+                methods[outCallees.get(e)]);
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int m = methodId(callee);
+        return m == -1 ? Set.of() : new BufferSet<>(inCallSites,
+                inStarts.get(m), inStarts.get(m + 1),
+                this::callSite, this::callSiteId);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int cs = callSiteId(callSite);
+        if (cs == -1) {
+            return Set.of();
+        }
+        Set<JMethod> callees = Sets.newHybridSet();
+        for (int e = outStarts.get(cs); e < outStarts.get(cs + 1); ++e) {
+            callees.add(methods[outCallees.get(e)]);
+        }
+        return callees;
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        return callSite.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int m = methodId(method);
+        if (m == -1) {
+            return Set.of();
+        }
+        int from = callSiteStarts.get(m), to = callSiteStarts.get(m + 1);
+        return new BufferSet<>(null, from, to,
+                cs -> (Invoke) method.getIR().getStmt(callSiteIndexes.get(cs)),
+                this::callSiteId);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int cs = callSiteId(callSite);
+        return cs == -1 ? Stream.of() :
+                IntStream.range(outStarts.get(cs), outStarts.get(cs + 1))
+                        .mapToObj(e -> new Edge<>(KINDS[outKinds.get(e)],
+                                callSite, methods[outCallees.get(e)]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = methodId(method);
+        return m == -1 ? Stream.of() :
+                IntStream.range(inStarts.get(m), inStarts.get(m + 1))
+                        .mapToObj(e -> new Edge<>(KINDS[inKinds.get(e)],
+                                callSite(inCallSites.get(e)), method));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, outStarts.limit() - 1)
+                .boxed()
+                .flatMap(cs -> IntStream.range(outStarts.get(cs), outStarts.get(cs + 1))
+                        .mapToObj(e -> outEdge(e, cs)));
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entries).mapToObj(m -> methods[m]);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.containsKey(method);
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        Set<MethodEdge<Invoke, JMethod>> edges = Sets.newHybridSet();
+        getCallersOf(method).forEach(cs ->
+                edges.add(new MethodEdge<>(cs.getContainer(), method, cs)));
+        return edges;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        Set<MethodEdge<Invoke, JMethod>> edges = Sets.newHybridSet();
+        getCallSitesIn(method).forEach(cs -> getCalleesOf(cs).forEach(callee ->
+                edges.add(new MethodEdge<>(method, callee, cs))));
+        return edges;
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        int m = methodId(node);
+        if (m == -1) {
+            return Set.of();
+        }
+        Set<JMethod> preds = Sets.newHybridSet();
+        for (int e = inStarts.get(m); e < inStarts.get(m + 1); ++e) {
+            preds.add(methods[containerId(inCallSites.get(e))]);
+        }
+        return preds;
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        int m = methodId(node);
+        if (m == -1) {
+            return Set.of();
+        }
+        Set<JMethod> succs = Sets.newHybridSet();
+        for (int e = outStarts.get(callSiteStarts.get(m));
+             e < outStarts.get(callSiteStarts.get(m + 1)); ++e) {
+            succs.add(methods[outCallees.get(e)]);
+        }
+        return succs;
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return methodIds.keySet();
+    }
+
+    /**
+     * Unmodifiable set view of the elements whose ids are
+     * {@code ids[from, to)}, or [from, to) if {@code ids} is null.
+     * The ids in the range must be distinct.
+     */
+    private static class BufferSet<E> extends AbstractSet<E> {
+
+        private final IntBuffer ids;
+
+        private final int from;
+
+        private final int to;
+
+        private final IntFunction<E> decoder;
+
+        private final ToIntFunction<E> encoder;
+
+        private BufferSet(IntBuffer ids, int from, int to,
+                          IntFunction<E> decoder, ToIntFunction<E> encoder) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.decoder = decoder;
+            this.encoder = encoder;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean contains(Object o) {
+            int id;
+            try {
+                id = encoder.applyAsInt((E) o);
+            } catch (ClassCastException e) {
+                return false;
+            }
+            if (id == -1) {
+                return false;
+            }
+            if (ids == null) {
+                return from <= id && id < to;
+            }
+            for (int i = from; i < to; ++i) {
+                if (ids.get(i) == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int id = ids == null ? i : ids.get(i);
+                    ++i;
+                    return decoder.apply(id);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
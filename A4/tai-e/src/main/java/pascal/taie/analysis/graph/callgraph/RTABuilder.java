@@ -0,0 +1,199 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of the RTA (Rapid Type Analysis) algorithm.
+ * <p>
+ * Different from CHA, virtual and interface calls are only resolved to
+ * the classes that are instantiated (by {@link New} statements) in
+ * reachable methods. When a class becomes instantiated, the call sites
+ * that have been reached and may dispatch on this class are resolved again.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    /**
+     * Classes instantiated in reachable methods.
+     */
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Map from each class to the reachable virtual/interface call sites
+     * whose method references are declared in the class.
+     */
+    private final MultiMap<JClass, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    /**
+     * Caches the results of {@link #dispatch(JClass, Subsignature)}.
+     * A null value means the dispatch fails.
+     */
+    private final Map<JClass, Map<Subsignature, JMethod>> dispatchCache = Maps.newMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        return buildCallGraph(World.get().getMainMethod());
+    }
+
+    private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
+        callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                processNewMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processNewMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt &&
+                    newStmt.getRValue() instanceof NewInstance newInstance) {
+                addInstantiatedClass(newInstance.getType().getJClass());
+            }
+        }
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            processCallSite(callSite);
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        Subsignature subsignature = methodRef.getSubsignature();
+        switch (kind) {
+            case STATIC -> addEdge(kind, callSite,
+                    declaringClass.getDeclaredMethod(subsignature));
+            case SPECIAL -> addEdge(kind, callSite,
+                    dispatch(declaringClass, subsignature));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(declaringClass, callSite);
+                for (JClass jclass : hierarchy.getAllSubclassesOf(declaringClass)) {
+                    if (instantiatedClasses.contains(jclass)) {
+                        addEdge(kind, callSite, dispatch(jclass, subsignature));
+                    }
+                }
+            }
+            default -> {
+                // dynamic calls are not handled, same as CHA
+            }
+        }
+    }
+
+    /**
+     * Adds a class instantiated in reachable methods, and resolves the
+     * reached call sites that may dispatch on this class.
+     */
+    private void addInstantiatedClass(JClass jclass) {
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        for (JClass supertype : getSupertypesOf(jclass)) {
+            for (Invoke callSite : virtualCallSites.get(supertype)) {
+                addEdge(CallGraphs.getCallKind(callSite), callSite,
+                        dispatch(jclass, callSite.getMethodRef().getSubsignature()));
+            }
+        }
+    }
+
+    /**
+     * @return the super classes and super interfaces of given class,
+     * including itself.
+     */
+    private static Set<JClass> getSupertypesOf(JClass jclass) {
+        Set<JClass> supertypes = Sets.newHybridSet();
+        Queue<JClass> queue = new ArrayDeque<>();
+        queue.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            if (supertypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    queue.add(c.getSuperClass());
+                }
+                queue.addAll(c.getInterfaces());
+            }
+        }
+        return supertypes;
+    }
+
+    private void addEdge(CallKind kind, Invoke callSite, JMethod callee) {
+        if (callee != null &&
+                callGraph.addEdge(new Edge<>(kind, callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    private JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        Map<Subsignature, JMethod> cache = dispatchCache.computeIfAbsent(
+                jclass, c -> Maps.newHybridMap());
+        if (cache.containsKey(subsignature)) {
+            return cache.get(subsignature);
+        }
+        JMethod method = jclass.getDeclaredMethod(subsignature);
+        if (method == null || method.isAbstract()) {
+            JClass superClass = jclass.getSuperClass();
+            method = superClass != null ? dispatch(superClass, subsignature) : null;
+        }
+        cache.put(subsignature, method);
+        return method;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.World;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.callgraph.CHABuilder;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ICFG that is constructed on demand.
+ * <p>
+ * Initially, only the main method is materialized. The callees of a call
+ * site are resolved by CHA, and its call edges (together with the
+ * corresponding return edges) are added when the out edges of the call
+ * site are queried for the first time, i.e., when the solver first
+ * propagates a fact from the call site to its callees, and the callees
+ * are materialized at that time. The call graph is built along with
+ * this ICFG, thus it does not require a whole-program call graph,
+ * and the IR and CFGs of the methods that are never reached
+ * are not built. {@link #getNodes()} only contains the nodes of
+ * the materialized methods.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    /**
+     * Builds CFGs for the methods whose CFGs have not been built by
+     * {@link CFGBuilder} in advance.
+     */
+    private final CFGBuilder cfgBuilder;
+
+    /**
+     * Computes the exceptions required by {@link #cfgBuilder},
+     * null if exceptional control flows are ignored.
+     */
+    private final ThrowAnalysis throwAnalysis;
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newMap();
+
+    private final Map<JMethod, CFG<Stmt>> methodToCFG = Maps.newMap();
+
+    /**
+     * Call sites whose call edges have been added.
+     */
+    private final Set<Stmt> expandedCallSites = Sets.newSet();
+
+    /**
+     * The call graph of the materialized methods, which is the same
+     * object as {@link #callGraph}.
+     */
+    private final DefaultCallGraph lazyCallGraph;
+
+    /**
+     * Resolves the callees of the call sites on demand.
+     */
+    private final CHABuilder chaBuilder = new CHABuilder();
+
+    /**
+     * Whether to cut the calls to library methods.
+     */
+    private final boolean appOnly;
+
+    /**
+     * @param exception the exceptions considered by the CFGs built on demand,
+     *                  i.e., the {@code exception} option of {@link CFGBuilder}
+     *                  (none, explicit or all)
+     * @param appOnly   whether to cut the calls to library methods
+     */
+    public LazyICFG(String exception, boolean appOnly) {
+        this(new DefaultCallGraph(), exception, appOnly);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LazyICFG(DefaultCallGraph callGraph, String exception, boolean appOnly) {
+        super((CallGraph<Stmt, JMethod>) (CallGraph<?, ?>) callGraph);
+        this.lazyCallGraph = callGraph;
+        this.appOnly = appOnly;
+        cfgBuilder = new CFGBuilder(new AnalysisConfig(CFGBuilder.ID,
+                "exception", exception, "dump", false));
+        throwAnalysis = exception.equals("none") ? null :
+                new ThrowAnalysis(new AnalysisConfig(ThrowAnalysis.ID,
+                        "exception", exception, "algorithm", "intra"));
+        JMethod main = World.get().getMainMethod();
+        lazyCallGraph.addEntryMethod(main);
+        materialize(main);
+    }
+
+    /**
+     * @return true if the CFG of given method has been added to this ICFG.
+     */
+    public boolean isMaterialized(JMethod method) {
+        return methodToCFG.containsKey(method);
+    }
+
+    /**
+     * @return the methods whose CFGs have been added to this ICFG.
+     */
+    public Stream<JMethod> materializedMethods() {
+        return methodToCFG.keySet().stream();
+    }
+
+    /**
+     * Adds the nodes, normal edges and call-to-return edges of given
+     * method to this ICFG.
+     */
+    private CFG<Stmt> materialize(JMethod method) {
+        CFG<Stmt> cfg = methodToCFG.get(method);
+        if (cfg == null) {
+            cfg = getCFGOf(method);
+            methodToCFG.put(method, cfg);
+            lazyCallGraph.addReachableMethod(method);
+            for (Stmt stmt : cfg) {
+                stmtToCFG.put(stmt, cfg);
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                    ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                            new CallToReturnEdge<>(edge) :
+                            new NormalEdge<>(edge);
+                    addEdge(local);
+                }
+            }
+        }
+        return cfg;
+    }
+
+    /**
+     * Adds the call edges and return edges of given call site to this ICFG.
+     */
+    private void expand(Stmt callSite) {
+        if (!expandedCallSites.add(callSite)) {
+            return;
+        }
+        Set<Stmt> retSites = getReturnSitesOf(callSite);
+        for (pascal.taie.analysis.graph.callgraph.Edge<Invoke, JMethod> callEdge :
+                chaBuilder.resolveCallEdges((Invoke) callSite)) {
+            JMethod callee = callEdge.getCallee();
+            if (appOnly && !CallGraphs.isApplication(callee)) {
+                continue;
+            }
+            lazyCallGraph.addEdge(callEdge);
+            CFG<Stmt> calleeCFG = materialize(callee);
+            addEdge(new CallEdge<>(callSite, calleeCFG.getEntry(), callee));
+            Stmt exit = calleeCFG.getExit();
+            Set<Var> retVars = Sets.newHybridSet();
+            Set<ClassType> exceptions = Sets.newHybridSet();
+            calleeCFG.getInEdgesOf(exit).forEach(retEdge -> {
+                if (retEdge.getKind() == Edge.Kind.RETURN) {
+                    Var retVar = ((Return) retEdge.getSource()).getValue();
+                    if (retVar != null) {
+                        retVars.add(retVar);
+                    }
+                }
+                if (retEdge.isExceptional()) {
+                    exceptions.addAll(retEdge.getExceptions());
+                }
+            });
+            for (Stmt retSite : retSites) {
+                addEdge(new ReturnEdge<>(exit, retSite, callSite,
+                        retVars, exceptions));
+            }
+        }
+    }
+
+    private void addEdge(ICFGEdge<Stmt> edge) {
+        outEdges.put(edge.getSource(), edge);
+        inEdges.put(edge.getTarget(), edge);
+    }
+
+    private CFG<Stmt> getCFGOf(JMethod method) {
+        IR ir = method.getIR();
+        return ir.getResult(CFGBuilder.ID, () -> {
+            if (throwAnalysis != null) {
+                ir.getResult(ThrowAnalysis.ID, () -> throwAnalysis.analyze(ir));
+            }
+            return cfgBuilder.analyze(ir);
+        });
+    }
+
+    /**
+     * @return the incoming edges of given node which have been materialized.
+     */
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        return inEdges.get(stmt);
+    }
+
+    /**
+     * Materializes the callees of given node if it is a call site
+     * that has not been expanded.
+     */
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        if (isCallSite(stmt)) {
+            expand(stmt);
+        }
+        return outEdges.get(stmt);
+    }
+
+    /**
+     * Materializes the callees of given call site if it has not been expanded.
+     */
+    @Override
+    public Set<JMethod> getCalleesOf(Stmt callSite) {
+        expand(callSite);
+        return super.getCalleesOf(callSite);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return materialize(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return materialize(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return stmtToCFG.get(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return stmtToCFG.get(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return stmtToCFG.containsKey(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    /**
+     * @return the nodes of the materialized methods.
+     */
+    @Override
+    public Set<Stmt> getNodes() {
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
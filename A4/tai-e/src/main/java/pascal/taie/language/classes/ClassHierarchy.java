@@ -75,6 +75,19 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if subclass is a subclass of superclass, or subclass
+     * is a subinterface or implementor of superclass if superclass is
+     * an interface. A class is considered as a subclass of itself.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass);
+
+    /**
+     * @return all subclasses of given class (including itself), or all
+     * subinterfaces and implementors of given interface (including itself).
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -29,14 +29,18 @@ import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
-import static pascal.taie.util.collection.Sets.newHybridSet;
+import static pascal.taie.util.collection.Sets.newConcurrentSet;
 
 public class ClassHierarchyImpl implements ClassHierarchy {
 
@@ -53,17 +57,34 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     /**
      * Map from each interface to its direct subinterfaces.
      */
-    private final Map<JClass, Set<JClass>> directSubinterfaces = newMap();
+    private volatile Map<JClass, Collection<JClass>> directSubinterfaces = newConcurrentMap();
 
     /**
      * Map from each interface to its direct implementors.
      */
-    private final Map<JClass, Set<JClass>> directImplementors = newMap();
+    private volatile Map<JClass, Collection<JClass>> directImplementors = newConcurrentMap();
 
     /**
      * Map from each class to its direct subclasses.
      */
-    private final Map<JClass, Set<JClass>> directSubclasses = newMap();
+    private volatile Map<JClass, Collection<JClass>> directSubclasses = newConcurrentMap();
+
+    /**
+     * Whether the above maps have been compacted by {@link #freeze()}.
+     */
+    private volatile boolean frozen = false;
+
+    /**
+     * Index of subclass relations, which is built on demand and
+     * discarded when new classes are added.
+     */
+    private volatile SubclassIndex subclassIndex;
+
+    /**
+     * Number of modifications of this class hierarchy, which is used to
+     * prevent caching a subclass index built before a modification.
+     */
+    private final AtomicLong modCount = new AtomicLong();
 
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
@@ -95,28 +116,81 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Adds a class to this class hierarchy. This method is thread-safe,
+     * so that classes can be added concurrently.
+     */
     @Override
     public void addClass(JClass jclass) {
+        if (frozen) {
+            thaw();
+        }
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
                     directSubinterfaces.computeIfAbsent(iface,
-                                    i -> newHybridSet())
+                                    i -> newConcurrentSet())
                             .add(jclass));
         } else {
             // add direct implementors
             jclass.getInterfaces().forEach(iface ->
                     directImplementors.computeIfAbsent(iface,
-                                    i -> newHybridSet())
+                                    i -> newConcurrentSet())
                             .add(jclass));
             // add direct subclasses
             JClass superClass = jclass.getSuperClass();
             if (superClass != null) {
                 directSubclasses.computeIfAbsent(superClass,
-                                c -> newHybridSet())
+                                c -> newConcurrentSet())
                         .add(jclass);
             }
         }
+        modCount.incrementAndGet();
+        subclassIndex = null;
+    }
+
+    /**
+     * Compacts this class hierarchy into read-only structures, and builds
+     * the subclass index. This should be called after all classes are added.
+     * Classes can still be added afterwards, at the cost of converting
+     * the structures back to concurrent ones. This method must not run
+     * concurrently with {@link #addClass(JClass)}.
+     */
+    public synchronized void freeze() {
+        if (!frozen) {
+            directSubinterfaces = compact(directSubinterfaces);
+            directImplementors = compact(directImplementors);
+            directSubclasses = compact(directSubclasses);
+            frozen = true;
+        }
+        getSubclassIndex();
+    }
+
+    private static Map<JClass, Collection<JClass>> compact(
+            Map<JClass, Collection<JClass>> map) {
+        Map<JClass, Collection<JClass>> result = newMap(map.size());
+        map.forEach((k, v) -> result.put(k, List.copyOf(v)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    private synchronized void thaw() {
+        if (frozen) {
+            directSubinterfaces = expand(directSubinterfaces);
+            directImplementors = expand(directImplementors);
+            directSubclasses = expand(directSubclasses);
+            frozen = false;
+        }
+    }
+
+    private static Map<JClass, Collection<JClass>> expand(
+            Map<JClass, Collection<JClass>> map) {
+        Map<JClass, Collection<JClass>> result = newConcurrentMap(map.size());
+        map.forEach((k, v) -> {
+            Set<JClass> set = newConcurrentSet();
+            set.addAll(v);
+            result.put(k, set);
+        });
+        return result;
     }
 
     @Override
@@ -147,17 +221,43 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public Collection<JClass> getDirectSubinterfacesOf(JClass jclass) {
-        return directSubinterfaces.getOrDefault(jclass, Set.of());
+        return directSubinterfaces.getOrDefault(jclass, List.of());
     }
 
     @Override
     public Collection<JClass> getDirectImplementorsOf(JClass jclass) {
-        return directImplementors.getOrDefault(jclass, Set.of());
+        return directImplementors.getOrDefault(jclass, List.of());
     }
 
     @Override
     public Collection<JClass> getDirectSubclassesOf(JClass jclass) {
-        return directSubclasses.getOrDefault(jclass, Set.of());
+        return directSubclasses.getOrDefault(jclass, List.of());
+    }
+
+    @Override
+    public boolean isSubclass(JClass superclass, JClass subclass) {
+        return getSubclassIndex().isSubclass(superclass, subclass);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        return getSubclassIndex().getAllSubclassesOf(jclass);
+    }
+
+    private SubclassIndex getSubclassIndex() {
+        SubclassIndex index = subclassIndex;
+        if (index == null) {
+            long version = modCount.get();
+            index = new SubclassIndex(
+                    allClasses().collect(Collectors.toList()), this);
+            synchronized (this) {
+                // do not cache the index if classes were added meanwhile
+                if (modCount.get() == version) {
+                    subclassIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
     private static boolean checkCHA = false;
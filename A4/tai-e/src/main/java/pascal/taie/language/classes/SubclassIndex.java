@@ -0,0 +1,232 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Precomputed subtype relations of a class hierarchy.
+ * <p>
+ * The classes (excluding interfaces) form a tree, which is numbered by
+ * depth-first search, so that the subclasses of a class occupy a contiguous
+ * range of the pre-order, and subclass checks are interval checks.
+ * For each interface, the closure of its subinterfaces and implementors
+ * is kept as bit sets over the numbering of interfaces and classes.
+ */
+class SubclassIndex {
+
+    /**
+     * Classes in DFS pre-order.
+     */
+    private final JClass[] classes;
+
+    /**
+     * Map from each class to its number in {@link #classes}.
+     */
+    private final Map<JClass, Integer> preorder = Maps.newMap();
+
+    /**
+     * Number of subclasses (including itself) of each class,
+     * indexed by pre-order number.
+     */
+    private final int[] sizes;
+
+    private final JClass[] interfaces;
+
+    private final Map<JClass, Integer> interfaceIds = Maps.newMap();
+
+    /**
+     * Subinterfaces (including itself) of each interface,
+     * as bits of interface ids.
+     */
+    private final BitSet[] subinterfaces;
+
+    /**
+     * Classes that implement each interface (directly or indirectly),
+     * as bits of class pre-order numbers.
+     */
+    private final BitSet[] implementors;
+
+    SubclassIndex(Collection<JClass> allClasses, ClassHierarchy hierarchy) {
+        List<JClass> classList = new ArrayList<>();
+        List<JClass> interfaceList = new ArrayList<>();
+        for (JClass c : allClasses) {
+            if (c.isInterface()) {
+                interfaceIds.put(c, interfaceList.size());
+                interfaceList.add(c);
+            } else {
+                classList.add(c);
+            }
+        }
+        classes = new JClass[classList.size()];
+        sizes = new int[classList.size()];
+        // roots first, then the classes whose super classes are absent
+        Set<JClass> classSet = Sets.newSet(classList.size());
+        classSet.addAll(classList);
+        classList.stream()
+                .filter(c -> c.getSuperClass() == null)
+                .forEach(root -> numberTree(root, classSet, hierarchy));
+        classList.stream()
+                .filter(c -> !preorder.containsKey(c))
+                .forEach(c -> numberTree(c, classSet, hierarchy));
+        interfaces = interfaceList.toArray(new JClass[0]);
+        subinterfaces = new BitSet[interfaces.length];
+        implementors = new BitSet[interfaces.length];
+        for (int i = 0; i < interfaces.length; ++i) {
+            closeInterface(i, hierarchy);
+        }
+    }
+
+    /**
+     * Numbers the classes in the tree rooted at given class
+     * by iterative depth-first search.
+     */
+    private void numberTree(JClass root, Set<JClass> classSet,
+                            ClassHierarchy hierarchy) {
+        Deque<JClass> stack = new ArrayDeque<>();
+        Deque<Iterator<JClass>> children = new ArrayDeque<>();
+        visit(root, stack, children, hierarchy);
+        while (!stack.isEmpty()) {
+            Iterator<JClass> it = children.peek();
+            if (it.hasNext()) {
+                JClass child = it.next();
+                if (classSet.contains(child) && !preorder.containsKey(child)) {
+                    visit(child, stack, children, hierarchy);
+                }
+            } else {
+                JClass c = stack.pop();
+                children.pop();
+                int pre = preorder.get(c);
+                sizes[pre] = preorder.size() - pre;
+            }
+        }
+    }
+
+    private void visit(JClass c, Deque<JClass> stack,
+                       Deque<Iterator<JClass>> children,
+                       ClassHierarchy hierarchy) {
+        int pre = preorder.size();
+        preorder.put(c, pre);
+        classes[pre] = c;
+        stack.push(c);
+        children.push(hierarchy.getDirectSubclassesOf(c).iterator());
+    }
+
+    /**
+     * Computes the subinterfaces and implementors of given interface.
+     */
+    private void closeInterface(int id, ClassHierarchy hierarchy) {
+        if (subinterfaces[id] != null) {
+            return;
+        }
+        BitSet subs = new BitSet();
+        BitSet impls = new BitSet();
+        subinterfaces[id] = subs;
+        implementors[id] = impls;
+        subs.set(id);
+        JClass iface = interfaces[id];
+        for (JClass impl : hierarchy.getDirectImplementorsOf(iface)) {
+            Integer pre = preorder.get(impl);
+            if (pre != null) {
+                impls.set(pre, pre + sizes[pre]);
+            }
+        }
+        for (JClass sub : hierarchy.getDirectSubinterfacesOf(iface)) {
+            Integer subId = interfaceIds.get(sub);
+            if (subId != null) {
+                closeInterface(subId, hierarchy);
+                subs.or(subinterfaces[subId]);
+                impls.or(implementors[subId]);
+            }
+        }
+    }
+
+    /**
+     * @return true if subclass is a subclass of superclass, or subclass
+     * is a subinterface or implementor of superclass if superclass is
+     * an interface. A class is considered as a subclass of itself.
+     */
+    boolean isSubclass(JClass superclass, JClass subclass) {
+        if (superclass.equals(subclass)) {
+            return true;
+        }
+        if (superclass.isInterface()) {
+            Integer id = interfaceIds.get(superclass);
+            if (id == null) {
+                return false;
+            }
+            if (subclass.isInterface()) {
+                Integer subId = interfaceIds.get(subclass);
+                return subId != null && subinterfaces[id].get(subId);
+            } else {
+                Integer pre = preorder.get(subclass);
+                return pre != null && implementors[id].get(pre);
+            }
+        } else if (subclass.isInterface()) {
+            // the super class of interfaces is the root class (Object)
+            return superclass.getSuperClass() == null;
+        } else {
+            Integer superPre = preorder.get(superclass);
+            Integer subPre = preorder.get(subclass);
+            return superPre != null && subPre != null &&
+                    superPre <= subPre && subPre < superPre + sizes[superPre];
+        }
+    }
+
+    /**
+     * @return all subclasses of given class (including itself), or all
+     * subinterfaces and implementors of given interface (including itself).
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        if (jclass.isInterface()) {
+            Integer id = interfaceIds.get(jclass);
+            if (id == null) {
+                return List.of(jclass);
+            }
+            List<JClass> result = new ArrayList<>();
+            subinterfaces[id].stream().forEach(i -> result.add(interfaces[i]));
+            implementors[id].stream().forEach(c -> result.add(classes[c]));
+            return Collections.unmodifiableList(result);
+        } else {
+            Integer pre = preorder.get(jclass);
+            if (pre == null) {
+                return List.of(jclass);
+            }
+            return Collections.unmodifiableList(
+                    Arrays.asList(classes).subList(pre, pre + sizes[pre]));
+        }
+    }
+}
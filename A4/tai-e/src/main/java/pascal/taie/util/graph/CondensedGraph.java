@@ -0,0 +1,319 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Condensation of a graph, i.e., the DAG whose nodes are the strongly
+ * connected components (SCCs) of the graph.
+ * <p>
+ * The SCCs are computed by Tarjan's algorithm. The depth-first search
+ * keeps its own stack of successor iterators instead of recursing,
+ * so that deep graphs (e.g., long call chains) do not overflow the
+ * Java stack, and each edge is visited only once.
+ *
+ * @param <N> type of nodes of the original graph
+ */
+public class CondensedGraph<N> implements Graph<CondensedGraph.Component<N>> {
+
+    /**
+     * Components in bottom-up order, i.e., each component appears after
+     * all its successors. This is the order in which Tarjan's algorithm
+     * finishes the components.
+     */
+    private final List<Component<N>> components = new ArrayList<>();
+
+    private final Map<N, Component<N>> nodeToComponent;
+
+    private final List<Component<N>> topDownOrder;
+
+    private final List<List<Component<N>>> bottomUpLevels;
+
+    private final List<List<Component<N>>> topDownLevels;
+
+    public CondensedGraph(Graph<N> graph) {
+        nodeToComponent = Maps.newMap(graph.getNumberOfNodes());
+        computeSCCs(graph);
+        connectComponents(graph);
+        List<Component<N>> order = new ArrayList<>(components);
+        Collections.reverse(order);
+        topDownOrder = Collections.unmodifiableList(order);
+        bottomUpLevels = computeLevels(components, true);
+        topDownLevels = computeLevels(topDownOrder, false);
+    }
+
+    /**
+     * Frame of the depth-first search.
+     */
+    private static class Frame<N> {
+
+        private final N node;
+
+        private final Iterator<N> succs;
+
+        private Frame(N node, Iterator<N> succs) {
+            this.node = node;
+            this.succs = succs;
+        }
+    }
+
+    private void computeSCCs(Graph<N> graph) {
+        Map<N, Integer> indexes = Maps.newMap(graph.getNumberOfNodes());
+        Map<N, Integer> lowLinks = Maps.newMap(graph.getNumberOfNodes());
+        Set<N> onStack = Sets.newSet();
+        Deque<N> stack = new ArrayDeque<>();
+        Deque<Frame<N>> frames = new ArrayDeque<>();
+        for (N start : graph) {
+            if (indexes.containsKey(start)) {
+                continue;
+            }
+            visit(graph, start, indexes, lowLinks, stack, onStack, frames);
+            while (!frames.isEmpty()) {
+                Frame<N> frame = frames.peek();
+                N node = frame.node;
+                if (frame.succs.hasNext()) {
+                    N succ = frame.succs.next();
+                    if (!indexes.containsKey(succ)) {
+                        visit(graph, succ, indexes, lowLinks, stack, onStack, frames);
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                    }
+                    continue;
+                }
+                frames.pop();
+                int lowLink = lowLinks.get(node);
+                if (lowLink == indexes.get(node)) {
+                    List<N> nodes = new ArrayList<>();
+                    N n;
+                    do {
+                        n = stack.pop();
+                        onStack.remove(n);
+                        nodes.add(n);
+                    } while (n != node);
+                    Component<N> component = new Component<>(
+                            components.size(), Collections.unmodifiableList(nodes));
+                    components.add(component);
+                    nodes.forEach(m -> nodeToComponent.put(m, component));
+                }
+                if (!frames.isEmpty()) {
+                    N parent = frames.peek().node;
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                }
+            }
+        }
+    }
+
+    private static <N> void visit(Graph<N> graph, N node,
+                                  Map<N, Integer> indexes, Map<N, Integer> lowLinks,
+                                  Deque<N> stack, Set<N> onStack,
+                                  Deque<Frame<N>> frames) {
+        int index = indexes.size();
+        indexes.put(node, index);
+        lowLinks.put(node, index);
+        stack.push(node);
+        onStack.add(node);
+        frames.push(new Frame<>(node, graph.getSuccsOf(node).iterator()));
+    }
+
+    private void connectComponents(Graph<N> graph) {
+        for (Component<N> component : components) {
+            for (N node : component.nodes) {
+                for (N succ : graph.getSuccsOf(node)) {
+                    Component<N> target = nodeToComponent.get(succ);
+                    if (target == component) {
+                        component.recursive = true;
+                    } else if (target.preds.add(component)) {
+                        component.succs.add(target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the component that contains given node of the original graph.
+     */
+    public Component<N> getComponentOf(N node) {
+        return nodeToComponent.get(node);
+    }
+
+    /**
+     * @return the components in bottom-up (reverse topological) order,
+     * i.e., every component appears after all its successors.
+     */
+    public List<Component<N>> getBottomUpOrder() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @return the components in top-down (topological) order,
+     * i.e., every component appears before all its successors.
+     */
+    public List<Component<N>> getTopDownOrder() {
+        return topDownOrder;
+    }
+
+    /**
+     * Groups the components by their heights, where the height of a
+     * component without successors is 0, and the height of other
+     * components is one plus the maximum height of their successors.
+     * The components of the same level do not depend on each other.
+     *
+     * @return the levels of components, from the lowest to the highest.
+     */
+    public List<List<Component<N>>> getBottomUpLevels() {
+        return bottomUpLevels;
+    }
+
+    /**
+     * Groups the components by their depths, where the depth of a
+     * component without predecessors is 0, and the depth of other
+     * components is one plus the maximum depth of their predecessors.
+     * The components of the same level do not depend on each other.
+     *
+     * @return the levels of components, from the shallowest to the deepest.
+     */
+    public List<List<Component<N>>> getTopDownLevels() {
+        return topDownLevels;
+    }
+
+    private List<List<Component<N>>> computeLevels(
+            List<Component<N>> order, boolean bottomUp) {
+        int[] levelOf = new int[components.size()];
+        List<List<Component<N>>> levels = new ArrayList<>();
+        for (Component<N> component : order) {
+            int level = 0;
+            for (Component<N> dep : bottomUp ? component.succs : component.preds) {
+                level = Math.max(level, levelOf[dep.id] + 1);
+            }
+            levelOf[component.id] = level;
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(component);
+        }
+        return Collections.unmodifiableList(levels);
+    }
+
+    @Override
+    public boolean hasNode(Component<N> node) {
+        return node.id < components.size() && components.get(node.id) == node;
+    }
+
+    @Override
+    public boolean hasEdge(Component<N> source, Component<N> target) {
+        return source.succs.contains(target);
+    }
+
+    @Override
+    public Set<Component<N>> getPredsOf(Component<N> node) {
+        return Collections.unmodifiableSet(node.preds);
+    }
+
+    @Override
+    public Set<Component<N>> getSuccsOf(Component<N> node) {
+        return Collections.unmodifiableSet(node.succs);
+    }
+
+    @Override
+    public Set<Component<N>> getNodes() {
+        Set<Component<N>> nodes = Sets.newHybridOrderedSet();
+        nodes.addAll(components);
+        return Collections.unmodifiableSet(nodes);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return components.size();
+    }
+
+    @Override
+    public Iterator<Component<N>> iterator() {
+        return getBottomUpOrder().iterator();
+    }
+
+    /**
+     * A strongly connected component, i.e., a node of the condensed graph.
+     */
+    public static class Component<N> {
+
+        private final int id;
+
+        private final List<N> nodes;
+
+        private final Set<Component<N>> preds = Sets.newHybridSet();
+
+        private final Set<Component<N>> succs = Sets.newHybridSet();
+
+        /**
+         * Whether there is an edge inside this component.
+         */
+        private boolean recursive;
+
+        private Component(int id, List<N> nodes) {
+            this.id = id;
+            this.nodes = nodes;
+        }
+
+        /**
+         * @return the index of this component in the bottom-up order.
+         * The index of a component is greater than the indexes of all
+         * its successors.
+         */
+        public int getIndex() {
+            return id;
+        }
+
+        /**
+         * @return the nodes of the original graph in this component.
+         */
+        public List<N> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return true if the nodes of this component form a cycle,
+         * i.e., this component has more than one node, or its only node
+         * has a self-loop.
+         */
+        public boolean isRecursive() {
+            return recursive;
+        }
+
+        @Override
+        public String toString() {
+            return "SCC" + nodes;
+        }
+    }
+}
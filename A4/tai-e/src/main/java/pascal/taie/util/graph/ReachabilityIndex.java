@@ -0,0 +1,199 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index for answering reachability queries on a graph, built on the
+ * condensation of the graph.
+ * <p>
+ * Each component is labeled with the pre-/post-order interval of a
+ * depth-first spanning forest of the condensed DAG, which answers the
+ * queries whose target is a tree descendant of the source, and whose
+ * target comes after the source in the bottom-up order (which cannot
+ * be reachable). The other queries are answered by the transitive closure
+ * of the DAG, computed bottom-up by uniting the bit sets of successors.
+ * <p>
+ * A node reaches another node if there is a path of at least one edge
+ * between them, thus a node reaches itself only if it is in a cycle.
+ *
+ * @param <N> type of nodes
+ */
+public class ReachabilityIndex<N> {
+
+    private final CondensedGraph<N> graph;
+
+    private final List<CondensedGraph.Component<N>> components;
+
+    /**
+     * Pre-order and post-order numbers of each component
+     * in the depth-first spanning forest.
+     */
+    private final int[] pre;
+
+    private final int[] post;
+
+    /**
+     * Components reachable from each component via at least one edge.
+     */
+    private final BitSet[] closure;
+
+    public ReachabilityIndex(Graph<N> graph) {
+        this(new CondensedGraph<>(graph));
+    }
+
+    public ReachabilityIndex(CondensedGraph<N> graph) {
+        this.graph = graph;
+        this.components = graph.getBottomUpOrder();
+        int n = components.size();
+        pre = new int[n];
+        post = new int[n];
+        labelIntervals();
+        closure = new BitSet[n];
+        for (CondensedGraph.Component<N> c : components) {
+            BitSet reachable = new BitSet(c.getIndex());
+            for (CondensedGraph.Component<N> succ : graph.getSuccsOf(c)) {
+                reachable.set(succ.getIndex());
+                reachable.or(closure[succ.getIndex()]);
+            }
+            if (c.isRecursive()) {
+                reachable.set(c.getIndex());
+            }
+            closure[c.getIndex()] = reachable;
+        }
+    }
+
+    /**
+     * Labels the components by an iterative depth-first traversal
+     * from the components without predecessors.
+     */
+    private void labelIntervals() {
+        boolean[] visited = new boolean[components.size()];
+        Deque<CondensedGraph.Component<N>> stack = new ArrayDeque<>();
+        Deque<Iterator<CondensedGraph.Component<N>>> succs = new ArrayDeque<>();
+        int preCount = 0, postCount = 0;
+        for (CondensedGraph.Component<N> root : graph.getTopDownOrder()) {
+            if (visited[root.getIndex()]) {
+                continue;
+            }
+            visited[root.getIndex()] = true;
+            pre[root.getIndex()] = preCount++;
+            stack.push(root);
+            succs.push(graph.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<CondensedGraph.Component<N>> it = succs.peek();
+                if (it.hasNext()) {
+                    CondensedGraph.Component<N> succ = it.next();
+                    if (!visited[succ.getIndex()]) {
+                        visited[succ.getIndex()] = true;
+                        pre[succ.getIndex()] = preCount++;
+                        stack.push(succ);
+                        succs.push(graph.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    post[stack.pop().getIndex()] = postCount++;
+                    succs.pop();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if there is a path of at least one edge
+     * from {@code source} to {@code target}, otherwise false.
+     */
+    public boolean reaches(N source, N target) {
+        CondensedGraph.Component<N> s = graph.getComponentOf(source);
+        CondensedGraph.Component<N> t = graph.getComponentOf(target);
+        if (s == null || t == null) {
+            return false;
+        }
+        int si = s.getIndex(), ti = t.getIndex();
+        if (si == ti) {
+            return s.isRecursive();
+        }
+        if (ti > si) { // successors come first in the bottom-up order
+            return false;
+        }
+        if (pre[si] < pre[ti] && post[ti] < post[si]) { // tree descendant
+            return true;
+        }
+        return closure[si].get(ti);
+    }
+
+    /**
+     * @return the nodes reachable from given node via at least one edge,
+     * e.g., the transitive callees of a method on a call graph.
+     */
+    public Set<N> getReachableNodes(N source) {
+        CondensedGraph.Component<N> s = graph.getComponentOf(source);
+        if (s == null) {
+            return Set.of();
+        }
+        BitSet reachable = closure[s.getIndex()];
+        Set<N> result = Sets.newHybridSet();
+        for (int i = reachable.nextSetBit(0); i >= 0; i = reachable.nextSetBit(i + 1)) {
+            result.addAll(components.get(i).getNodes());
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return the nodes that reach given node via at least one edge,
+     * e.g., the transitive callers of a method on a call graph.
+     */
+    public Set<N> getReachingNodes(N target) {
+        CondensedGraph.Component<N> t = graph.getComponentOf(target);
+        if (t == null) {
+            return Set.of();
+        }
+        // traverse the predecessors backward, which visits only
+        // the components that reach the target
+        Set<CondensedGraph.Component<N>> visited = Sets.newHybridSet();
+        Deque<CondensedGraph.Component<N>> workList = new ArrayDeque<>();
+        Set<N> result = Sets.newHybridSet();
+        if (t.isRecursive()) {
+            result.addAll(t.getNodes());
+        }
+        visited.add(t);
+        workList.push(t);
+        while (!workList.isEmpty()) {
+            for (CondensedGraph.Component<N> pred : graph.getPredsOf(workList.pop())) {
+                if (visited.add(pred)) {
+                    result.addAll(pred.getNodes());
+                    workList.push(pred);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+}
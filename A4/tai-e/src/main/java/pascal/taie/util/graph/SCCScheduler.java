@@ -0,0 +1,68 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs a task on each strongly connected component of a graph, following
+ * the order of the dependencies among components. The components of
+ * the same level are independent of each other, thus they are dispatched
+ * to the common fork-join pool in parallel, and each level starts after
+ * the previous level finishes.
+ */
+public final class SCCScheduler {
+
+    private SCCScheduler() {
+    }
+
+    /**
+     * Runs the task on each component after running it on all
+     * successors of the component, e.g., for summary-based analyses.
+     */
+    public static <N> void runBottomUp(
+            CondensedGraph<N> graph, Consumer<CondensedGraph.Component<N>> task) {
+        run(graph.getBottomUpLevels(), task);
+    }
+
+    /**
+     * Runs the task on each component after running it on all
+     * predecessors of the component.
+     */
+    public static <N> void runTopDown(
+            CondensedGraph<N> graph, Consumer<CondensedGraph.Component<N>> task) {
+        run(graph.getTopDownLevels(), task);
+    }
+
+    private static <N> void run(List<List<CondensedGraph.Component<N>>> levels,
+                                Consumer<CondensedGraph.Component<N>> task) {
+        for (List<CondensedGraph.Component<N>> level : levels) {
+            if (level.size() == 1) {
+                task.accept(level.get(0));
+            } else {
+                level.parallelStream().forEach(task);
+            }
+        }
+    }
+}
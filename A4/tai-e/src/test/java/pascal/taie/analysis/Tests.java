@@ -61,6 +61,29 @@ public final class Tests {
      * @param opts      options for the analysis
      */
     public static void test(String main, String classPath, String id, String... opts) {
+        doTest(main, classPath, id, getExpectedFile(classPath, main, id), opts);
+    }
+
+    /**
+     * Starts an analysis for a specific test case, whose results are
+     * compared with the expected file of given variant, i.e.,
+     * {@code <main>-<id>-<variant>-expected.txt}. This is for the
+     * configurations that are more precise than the default one.
+     *
+     * @param main      the main class to be analyzed
+     * @param classPath where the main class is located
+     * @param id        ID of the analysis to be executed
+     * @param variant   name of the variant
+     * @param opts      options for the analysis
+     */
+    public static void testVariant(String main, String classPath, String id,
+                                   String variant, String... opts) {
+        doTest(main, classPath, id,
+                getExpectedFile(classPath, main, id + "-" + variant), opts);
+    }
+
+    private static void doTest(String main, String classPath, String id,
+                               String file, String... opts) {
         List<String> args = new ArrayList<>();
         args.add("-pp");
         Collections.addAll(args, "-cp", classPath);
@@ -82,7 +105,6 @@ public final class Tests {
         }
         // set up result processor
         String action = GENERATE_EXPECTED_RESULTS ? "dump" : "compare";
-        String file = getExpectedFile(classPath, main, id);
         String processArg = String.format("%s=analyses:[%s];action:%s;file:%s",
                 ResultProcessor.ID, id, action, file);
         Collections.addAll(args, "-a", processArg);
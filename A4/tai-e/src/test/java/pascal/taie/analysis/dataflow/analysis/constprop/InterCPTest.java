@@ -30,9 +30,50 @@ public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
+    private static final String SUMMARY_OPTIONS =
+            "edge-refine:false;alias-aware:false;summary:true";
+
     void test(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false");
+    }
+
+    /**
+     * Solves the test case as linear constant propagation by the IDE solver,
+     * which is expected to give the same results.
+     */
+    void testIDE(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false;ide:true");
+    }
+
+    /**
+     * Solves the test case by the parallel solver, which is expected
+     * to give the same results as the sequential one.
+     */
+    void testParallel(String inputClass) {
+        test(inputClass, "edge-refine:false;alias-aware:false;parallel:true");
+    }
+
+    /**
+     * Solves the test case by the functional approach, which is expected
+     * to give the same results.
+     */
+    void testSummary(String inputClass) {
+        test(inputClass, SUMMARY_OPTIONS);
+    }
+
+    /**
+     * Solves the test case on the ICFG and call graph built on demand,
+     * which is expected to give the same results. The call graph builder
+     * is not run in this case.
+     */
+    void testLazy(String inputClass) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                "edge-refine:false;alias-aware:false;lazy-icfg:true");
+    }
+
+    void test(String inputClass, String options) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                options, "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -57,4 +98,117 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testExampleIDE() {
+        testIDE("Example");
+    }
+
+    @Test
+    public void testReferenceIDE() {
+        testIDE("Reference");
+    }
+
+    @Test
+    public void testFibonacciIDE() {
+        testIDE("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgsIDE() {
+        testIDE("MultiIntArgs");
+    }
+
+    @Test
+    public void testExampleParallel() {
+        testParallel("Example");
+    }
+
+    @Test
+    public void testReferenceParallel() {
+        testParallel("Reference");
+    }
+
+    @Test
+    public void testFibonacciParallel() {
+        testParallel("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgsParallel() {
+        testParallel("MultiIntArgs");
+    }
+
+    @Test
+    public void testExampleSummary() {
+        testSummary("Example");
+    }
+
+    @Test
+    public void testReferenceSummary() {
+        testSummary("Reference");
+    }
+
+    @Test
+    public void testFibonacciSummary() {
+        testSummary("Fibonacci");
+    }
+
+    /**
+     * The functional approach analyzes foo() separately for its two
+     * call sites, thus it gives constant results for them, which are
+     * more precise than the ones of the default solver.
+     */
+    @Test
+    public void testMultiIntArgsSummary() {
+        Tests.testVariant("MultiIntArgs", CLASS_PATH, InterConstantPropagation.ID,
+                "summary", SUMMARY_OPTIONS, "-a", "cg=algorithm:cha");
+    }
+
+    @Test
+    public void testExampleLazy() {
+        testLazy("Example");
+    }
+
+    @Test
+    public void testReferenceLazy() {
+        testLazy("Reference");
+    }
+
+    @Test
+    public void testFibonacciLazy() {
+        testLazy("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgsLazy() {
+        testLazy("MultiIntArgs");
+    }
+
+    /**
+     * The calls to library methods are cut from the ICFG, and their
+     * results are given by the library summaries: Math.abs() is evaluated
+     * on the values of its arguments, and Math.floorMod() gives NAC.
+     */
+    @Test
+    public void testLibraryCallsAppOnly() {
+        test("LibraryCalls", "edge-refine:false;alias-aware:false;app-only:true");
+    }
+
+    @Test
+    public void testLibraryCallsAppOnlyLazy() {
+        Tests.test("LibraryCalls", CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;app-only:true;lazy-icfg:true");
+    }
+
+    /**
+     * The value returned by Math.floorMod() is given by the constant table.
+     */
+    @Test
+    public void testLibraryCallsAppOnlyWithSummaries() {
+        Tests.testVariant("LibraryCalls", CLASS_PATH, InterConstantPropagation.ID,
+                "summaries", "edge-refine:false;alias-aware:false;app-only:true;" +
+                        "library-summaries:" + CLASS_PATH + "/LibraryCalls-summaries.txt",
+                "-a", "cg=algorithm:cha");
+    }
 }
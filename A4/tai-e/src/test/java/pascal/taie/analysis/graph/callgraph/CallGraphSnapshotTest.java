@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CallGraphSnapshotTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static CallGraph<Invoke, JMethod> buildCallGraph(String main, String options) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH,
+                "-m", main, "-a", "cg=algorithm:cha" + options});
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    /**
+     * Writes the call graph of given program to a snapshot, reloads it,
+     * and compares the loaded call graph with the original one.
+     */
+    private static void testRoundTrip(String main) throws IOException {
+        CallGraph<Invoke, JMethod> callGraph = buildCallGraph(main, "");
+        Path path = Files.createTempFile("cg", ".snapshot");
+        try {
+            byte[] fingerprint = CallGraphSnapshot.fingerprint();
+            CallGraphSnapshot.write(callGraph, path, "cha", "", fingerprint);
+            CallGraph<Invoke, JMethod> loaded = CallGraphSnapshot.load(
+                    path, "cha", "", fingerprint);
+            assertTrue(loaded instanceof MappedCallGraph);
+            assertEquals(callGraph.entryMethods().collect(Collectors.toSet()),
+                    loaded.entryMethods().collect(Collectors.toSet()));
+            assertEquals(callGraph.reachableMethods().collect(Collectors.toSet()),
+                    loaded.reachableMethods().collect(Collectors.toSet()));
+            callGraph.reachableMethods().forEach(method -> {
+                assertEquals(callGraph.getCallSitesIn(method),
+                        loaded.getCallSitesIn(method));
+                callGraph.getCallSitesIn(method).forEach(callSite ->
+                        assertEquals(method, loaded.getContainerOf(callSite)));
+            });
+            // edges are compared with their kinds
+            assertEquals(edgesOf(callGraph), edgesOf(loaded));
+            assertEquals(callGraph.getNumberOfEdges(), loaded.getNumberOfEdges());
+            // snapshots built by other algorithms or with other options
+            // are not reused
+            assertNull(CallGraphSnapshot.load(path, "rta", "", fingerprint));
+            assertNull(CallGraphSnapshot.load(
+                    path, "cha", "library-summary:summary.txt", fingerprint));
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Set<Edge<Invoke, JMethod>> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges().collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testStaticCall() throws IOException {
+        testRoundTrip("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() throws IOException {
+        testRoundTrip("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() throws IOException {
+        testRoundTrip("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() throws IOException {
+        testRoundTrip("AbstractMethod");
+    }
+
+    /**
+     * The snapshot given to the call graph builder is reused only if
+     * it is built with the same options.
+     */
+    @Test
+    public void testSnapshotOptions() throws IOException {
+        Path snapshot = Path.of("VirtualCall.snapshot");
+        Path summaries = Path.of("library-summary-VirtualCall.txt");
+        Files.deleteIfExists(snapshot);
+        try {
+            String options = ";snapshot:" + snapshot;
+            CallGraph<Invoke, JMethod> built = buildCallGraph("VirtualCall", options);
+            assertFalse(built instanceof MappedCallGraph);
+            CallGraph<Invoke, JMethod> loaded = buildCallGraph("VirtualCall", options);
+            assertTrue(loaded instanceof MappedCallGraph);
+            assertEquals(edgesOf(built), edgesOf(loaded));
+            CallGraph<Invoke, JMethod> rebuilt = buildCallGraph("VirtualCall",
+                    options + ";library-summary:" + summaries);
+            assertFalse(rebuilt instanceof MappedCallGraph);
+            assertEquals(edgesOf(built), edgesOf(rebuilt));
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(summaries);
+        }
+    }
+}
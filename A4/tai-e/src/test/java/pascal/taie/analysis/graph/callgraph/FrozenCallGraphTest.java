@@ -0,0 +1,189 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FrozenCallGraphTest {
+
+    /**
+     * Builds the CHA call graph of given program without freezing it,
+     * then compares it with its frozen copy.
+     */
+    private static void testCHA(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=algorithm:cha"});
+        DefaultCallGraph callGraph = (DefaultCallGraph) new CHABuilder().build();
+        CallGraph<Invoke, JMethod> frozen = callGraph.freeze();
+        assertSameQueries(callGraph, frozen);
+        callGraph.reachableMethods()
+                .filter(m -> !m.isAbstract())
+                .forEach(m -> {
+                    for (Stmt stmt : m.getIR()) {
+                        assertEquals(callGraph.isRelevant(stmt), frozen.isRelevant(stmt));
+                        assertSameSet(callGraph.getResult(stmt), frozen.getResult(stmt));
+                    }
+                });
+    }
+
+    /**
+     * Compares the results of all queries of {@link CallGraph} and
+     * {@link pascal.taie.util.graph.Graph} on two call graphs.
+     */
+    private static <CS, M> void assertSameQueries(CallGraph<CS, M> expected,
+                                                  CallGraph<CS, M> actual) {
+        assertEquals(toSet(expected.entryMethods()), toSet(actual.entryMethods()));
+        assertEquals(toSet(expected.reachableMethods()), toSet(actual.reachableMethods()));
+        assertEquals(expected.getNumberOfMethods(), actual.getNumberOfMethods());
+        assertEquals(expected.getNumberOfEdges(), actual.getNumberOfEdges());
+        assertEquals(toSet(expected.edges()), toSet(actual.edges()));
+        assertSameSet(expected.getNodes(), actual.getNodes());
+        assertEquals(expected.getNumberOfNodes(), actual.getNumberOfNodes());
+        List<M> methods = expected.reachableMethods().toList();
+        for (M method : methods) {
+            assertEquals(expected.contains(method), actual.contains(method));
+            assertEquals(expected.hasNode(method), actual.hasNode(method));
+            assertSameSet(expected.getCallersOf(method), actual.getCallersOf(method));
+            assertSameSet(expected.getCalleesOfM(method), actual.getCalleesOfM(method));
+            assertSameSet(expected.getCallSitesIn(method), actual.getCallSitesIn(method));
+            assertEquals(toSet(expected.callSitesIn(method)), toSet(actual.callSitesIn(method)));
+            assertEquals(toSet(expected.edgesInTo(method)), toSet(actual.edgesInTo(method)));
+            assertSameSet(expected.getPredsOf(method), actual.getPredsOf(method));
+            assertSameSet(expected.getSuccsOf(method), actual.getSuccsOf(method));
+            assertSameSet(expected.getInEdgesOf(method), actual.getInEdgesOf(method));
+            assertSameSet(expected.getOutEdgesOf(method), actual.getOutEdgesOf(method));
+            assertEquals(expected.getInDegreeOf(method), actual.getInDegreeOf(method));
+            assertEquals(expected.getOutDegreeOf(method), actual.getOutDegreeOf(method));
+            for (M target : methods) {
+                assertEquals(expected.hasEdge(method, target), actual.hasEdge(method, target));
+            }
+            for (CS callSite : expected.getCallSitesIn(method)) {
+                assertEquals(expected.getContainerOf(callSite), actual.getContainerOf(callSite));
+                assertSameSet(expected.getCalleesOf(callSite), actual.getCalleesOf(callSite));
+                assertEquals(toSet(expected.edgesOutOf(callSite)),
+                        toSet(actual.edgesOutOf(callSite)));
+            }
+        }
+    }
+
+    /**
+     * Compares two sets by their elements, as some sets returned by
+     * call graphs are views that do not override {@code equals}.
+     */
+    private static <T> void assertSameSet(Collection<? extends T> expected,
+                                          Collection<? extends T> actual) {
+        assertEquals(Set.copyOf(expected), Set.copyOf(actual));
+    }
+
+    private static <T> Set<T> toSet(Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testStaticCall() {
+        testCHA("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        testCHA("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        testCHA("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        testCHA("AbstractMethod");
+    }
+
+    /**
+     * Covers recursion, a call site with several callees, several call
+     * sites calling the same method, a method without call sites,
+     * and methods that are not in the call graph.
+     */
+    @Test
+    public void testCyclicCallGraph() {
+        StringCallGraph callGraph = new StringCallGraph();
+        callGraph.entryMethods.add("main");
+        callGraph.addEdge("main", "main.0", "foo");
+        callGraph.addEdge("main", "main.0", "bar");
+        callGraph.addEdge("main", "main.1", "foo");
+        callGraph.addEdge("foo", "foo.0", "foo");
+        callGraph.addEdge("foo", "foo.1", "bar");
+        callGraph.addEdge("bar", "bar.0", "main");
+        callGraph.addEdge("bar", "bar.1", "leaf");
+        callGraph.addCallSite("leaf", "leaf.0");
+        CallGraph<String, String> frozen = callGraph.freeze();
+        assertSameQueries(callGraph, frozen);
+        assertEquals(Set.of(), frozen.getCallSitesIn("absent"));
+        assertEquals(Set.of(), frozen.getCalleesOf("absent.0"));
+        assertNull(frozen.getContainerOf("absent.0"));
+    }
+
+    /**
+     * Call graph whose methods and call sites are strings.
+     */
+    private static class StringCallGraph extends AbstractCallGraph<String, String> {
+
+        private void addCallSite(String method, String callSite) {
+            reachableMethods.add(method);
+            callSiteToContainer.put(callSite, method);
+            callSitesIn.put(method, callSite);
+        }
+
+        private void addEdge(String caller, String callSite, String callee) {
+            addCallSite(caller, callSite);
+            reachableMethods.add(callee);
+            Edge<String, String> edge = new Edge<>(CallKind.STATIC, callSite, callee);
+            callSiteToEdges.put(callSite, edge);
+            calleeToEdges.put(callee, edge);
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getResult(Stmt stmt) {
+            return Set.of();
+        }
+    }
+}
@@ -25,10 +25,45 @@ package pascal.taie.analysis.graph.callgraph.cha;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class CHATest {
     
     protected static void test(String main) {
-        Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
+        test(main, "algorithm:cha");
+    }
+
+    /**
+     * Builds the call graph in parallel, which is expected to be
+     * identical to the one built sequentially.
+     */
+    protected static void testParallel(String main) {
+        test(main, "algorithm:cha;parallel:true");
+    }
+
+    /**
+     * Builds the call graph with library call summaries: the first run
+     * computes the summaries, and the later runs splice them into the call
+     * graph. All of them are expected to be identical to the call graph
+     * built without the summaries.
+     */
+    protected static void testLibrarySummary(String main) throws IOException {
+        Path summaries = Path.of("library-summary-" + main + ".txt");
+        Files.deleteIfExists(summaries);
+        try {
+            String options = "algorithm:cha;library-summary:" + summaries;
+            test(main, options);
+            test(main, options);
+            test(main, options + ";parallel:true");
+        } finally {
+            Files.deleteIfExists(summaries);
+        }
+    }
+
+    protected static void test(String main, String options) {
+        Tests.test(main, "src/test/resources/cha/", "cg", options);
     }
 
     @Test
@@ -50,4 +85,59 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testStaticCallParallel() {
+        testParallel("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCallParallel() {
+        testParallel("VirtualCall");
+    }
+
+    @Test
+    public void testInterfaceParallel() {
+        testParallel("Interface");
+    }
+
+    @Test
+    public void testAbstractMethodParallel() {
+        testParallel("AbstractMethod");
+    }
+
+    @Test
+    public void testStaticCallLibrarySummary() throws IOException {
+        testLibrarySummary("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCallLibrarySummary() throws IOException {
+        testLibrarySummary("VirtualCall");
+    }
+
+    @Test
+    public void testInterfaceLibrarySummary() throws IOException {
+        testLibrarySummary("Interface");
+    }
+
+    @Test
+    public void testAbstractMethodLibrarySummary() throws IOException {
+        testLibrarySummary("AbstractMethod");
+    }
+
+    /**
+     * Builds the call graphs of all test cases twice in the same JVM.
+     * The resolution and dispatch caches of a run must not leak into
+     * the next run, whose world is reset and has a different hierarchy.
+     */
+    @Test
+    public void testRepeatedRuns() {
+        for (int i = 0; i < 2; ++i) {
+            test("StaticCall");
+            test("VirtualCall");
+            test("Interface");
+            test("AbstractMethod");
+        }
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.cha;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CHAUpdateTest {
+
+    /**
+     * Builds the call graph of VirtualCall without classes C and D,
+     * adds them back by {@link CallGraphBuilder#addClasses}, and compares
+     * the updated call graph with the one built on the complete hierarchy.
+     */
+    @Test
+    public void testAddClasses() {
+        testAddClasses(false);
+    }
+
+    /**
+     * Adds C and D by two updates, so that the second update resolves
+     * the calls with the caches changed by the first one.
+     */
+    @Test
+    public void testAddClassesOneByOne() {
+        testAddClasses(true);
+    }
+
+    private static void testAddClasses(boolean oneByOne) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", "VirtualCall", "-a", "cg=algorithm:cha"});
+        CallGraph<Invoke, JMethod> rebuilt = World.get().getResult(CallGraphBuilder.ID);
+        // build the call graph on the hierarchy without C and D
+        ClassHierarchy complete = World.get().getClassHierarchy();
+        List<JClass> newClasses = List.of(
+                complete.getClass("C"), complete.getClass("D"));
+        ClassHierarchyImpl partial = new ClassHierarchyImpl();
+        partial.setDefaultClassLoader(complete.getDefaultClassLoader());
+        partial.setBootstrapClassLoader(complete.getBootstrapClassLoader());
+        complete.allClasses()
+                .filter(c -> !newClasses.contains(c))
+                .forEach(partial::addClass);
+        World.get().setClassHierarchy(partial);
+        CallGraph<Invoke, JMethod> initial = new CallGraphBuilder(
+                new AnalysisConfig(CallGraphBuilder.ID, "algorithm", "cha"))
+                .analyze();
+        assertTrue(initial.getNumberOfMethods() < rebuilt.getNumberOfMethods());
+        // add C and D, then C.foo() and D.foo() become reachable
+        CallGraph<Invoke, JMethod> updated;
+        if (oneByOne) {
+            CallGraphBuilder.addClasses(List.of(newClasses.get(0)));
+            updated = CallGraphBuilder.addClasses(List.of(newClasses.get(1)));
+        } else {
+            updated = CallGraphBuilder.addClasses(newClasses);
+        }
+        assertEquals(rebuilt.reachableMethods().collect(Collectors.toSet()),
+                updated.reachableMethods().collect(Collectors.toSet()));
+        assertEquals(edgesOf(rebuilt), edgesOf(updated));
+        assertSame(updated, World.get().getResult(CallGraphBuilder.ID));
+    }
+
+    private static Set<Edge<Invoke, JMethod>> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClassHierarchyImplTest {
+
+    private static ClassHierarchyImpl newHierarchy(ClassHierarchy complete) {
+        ClassHierarchyImpl hierarchy = new ClassHierarchyImpl();
+        hierarchy.setDefaultClassLoader(complete.getDefaultClassLoader());
+        hierarchy.setBootstrapClassLoader(complete.getBootstrapClassLoader());
+        return hierarchy;
+    }
+
+    /**
+     * Checks the direct subtypes of each class and the subclass
+     * queries of given hierarchy against the complete hierarchy.
+     */
+    private static void check(ClassHierarchy complete, ClassHierarchy hierarchy) {
+        List<JClass> allClasses = complete.allClasses().toList();
+        for (JClass jclass : allClasses) {
+            assertEquals(Set.copyOf(complete.getDirectSubclassesOf(jclass)),
+                    Set.copyOf(hierarchy.getDirectSubclassesOf(jclass)));
+            assertEquals(Set.copyOf(complete.getDirectImplementorsOf(jclass)),
+                    Set.copyOf(hierarchy.getDirectImplementorsOf(jclass)));
+            assertEquals(Set.copyOf(complete.getDirectSubinterfacesOf(jclass)),
+                    Set.copyOf(hierarchy.getDirectSubinterfacesOf(jclass)));
+        }
+        SubclassIndexTest.check(hierarchy, Set.copyOf(allClasses),
+                SubclassIndexTest.getQueriedClasses(complete));
+    }
+
+    /**
+     * Adds all classes concurrently, then freezes the hierarchy.
+     */
+    @Test
+    public void testConcurrentAddClass() {
+        ClassHierarchy complete = SubclassIndexTest.buildHierarchy("Interface");
+        ClassHierarchyImpl hierarchy = newHierarchy(complete);
+        complete.allClasses()
+                .toList()
+                .parallelStream()
+                .forEach(hierarchy::addClass);
+        hierarchy.freeze();
+        check(complete, hierarchy);
+    }
+
+    /**
+     * Adds the application classes concurrently to a frozen hierarchy,
+     * which thaws it, then freezes it again.
+     */
+    @Test
+    public void testConcurrentAddClassAfterFreeze() {
+        ClassHierarchy complete = SubclassIndexTest.buildHierarchy("VirtualCall");
+        ClassHierarchyImpl hierarchy = newHierarchy(complete);
+        Set<JClass> appClasses = complete.applicationClasses()
+                .collect(Collectors.toSet());
+        complete.allClasses()
+                .filter(c -> !appClasses.contains(c))
+                .toList()
+                .parallelStream()
+                .forEach(hierarchy::addClass);
+        hierarchy.freeze();
+        appClasses.parallelStream().forEach(hierarchy::addClass);
+        check(complete, hierarchy);
+        hierarchy.freeze();
+        check(complete, hierarchy);
+    }
+}
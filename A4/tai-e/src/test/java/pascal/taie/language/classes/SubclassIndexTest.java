@@ -0,0 +1,212 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+public class SubclassIndexTest {
+
+    /**
+     * Library types queried in addition to the application classes and
+     * their super types, which cover interfaces with subinterfaces.
+     */
+    private static final List<String> LIBRARY_TYPES = List.of(
+            "java.lang.Iterable", "java.util.Collection", "java.util.List",
+            "java.util.AbstractList", "java.util.ArrayList",
+            "java.lang.Comparable", "java.lang.Integer");
+
+    /**
+     * Library types that are added to the hierarchy after indexing
+     * in {@link #testAddClassesAfterIndexing()}.
+     */
+    private static final List<String> LATE_LIBRARY_TYPES = List.of(
+            "java.util.List", "java.util.ArrayList");
+
+    static ClassHierarchy buildHierarchy(String main) {
+        Main.main(new String[]{"-pp", "-cp", "src/test/resources/cha/",
+                "-m", main, "-a", "cg=algorithm:cha"});
+        return World.get().getClassHierarchy();
+    }
+
+    /**
+     * @return the application classes, their super classes and interfaces,
+     * and {@link #LIBRARY_TYPES} of given hierarchy.
+     */
+    static List<JClass> getQueriedClasses(ClassHierarchy hierarchy) {
+        Set<JClass> classes = new HashSet<>();
+        Stream.concat(hierarchy.applicationClasses(),
+                        LIBRARY_TYPES.stream()
+                                .map(hierarchy::getClass)
+                                .filter(Objects::nonNull))
+                .forEach(c -> addSupertypes(c, classes));
+        return List.copyOf(classes);
+    }
+
+    private static void addSupertypes(JClass jclass, Set<JClass> result) {
+        if (result.add(jclass)) {
+            if (jclass.getSuperClass() != null) {
+                addSupertypes(jclass.getSuperClass(), result);
+            }
+            jclass.getInterfaces().forEach(i -> addSupertypes(i, result));
+        }
+    }
+
+    /**
+     * Checks {@link ClassHierarchy#isSubclass} and
+     * {@link ClassHierarchy#getAllSubclassesOf} of given hierarchy
+     * on the queried classes against a brute-force walk over the super
+     * classes and interfaces of the classes that have been added.
+     *
+     * @param added the classes that have been added to the hierarchy
+     */
+    static void check(ClassHierarchy hierarchy, Set<JClass> added,
+                      Collection<JClass> queried) {
+        Map<JClass, Set<JClass>> supertypes = new HashMap<>();
+        List<JClass> allClasses = hierarchy.allClasses().toList();
+        for (JClass superclass : queried) {
+            for (JClass subclass : queried) {
+                assertEquals(superclass + " :> " + subclass,
+                        isSubclass(superclass, subclass, added, supertypes),
+                        hierarchy.isSubclass(superclass, subclass));
+            }
+            Set<JClass> expected = allClasses.stream()
+                    .filter(c -> superclass.isInterface() || !c.isInterface())
+                    .filter(c -> isSubclass(superclass, c, added, supertypes))
+                    .collect(Collectors.toSet());
+            Collection<JClass> subclasses = hierarchy.getAllSubclassesOf(superclass);
+            assertEquals("subclasses of " + superclass, expected, Set.copyOf(subclasses));
+            assertEquals("duplicate subclasses of " + superclass,
+                    expected.size(), subclasses.size());
+        }
+    }
+
+    private static boolean isSubclass(JClass superclass, JClass subclass,
+                                      Set<JClass> added,
+                                      Map<JClass, Set<JClass>> supertypes) {
+        if (subclass.isInterface() && !superclass.isInterface()) {
+            // the super class of interfaces is the root class (Object)
+            return superclass.getSuperClass() == null;
+        }
+        return getSupertypes(subclass, added, supertypes).contains(superclass);
+    }
+
+    /**
+     * @return given class and its super types that are reachable via the
+     * super classes and interfaces of the classes that have been added.
+     * The super class of interfaces is not followed, as it is not
+     * recorded by the hierarchy.
+     */
+    private static Set<JClass> getSupertypes(JClass jclass, Set<JClass> added,
+                                             Map<JClass, Set<JClass>> supertypes) {
+        Set<JClass> result = supertypes.get(jclass);
+        if (result == null) {
+            result = new HashSet<>();
+            result.add(jclass);
+            if (added.contains(jclass)) {
+                if (!jclass.isInterface() && jclass.getSuperClass() != null) {
+                    result.addAll(getSupertypes(jclass.getSuperClass(), added, supertypes));
+                }
+                for (JClass iface : jclass.getInterfaces()) {
+                    result.addAll(getSupertypes(iface, added, supertypes));
+                }
+            }
+            supertypes.put(jclass, result);
+        }
+        return result;
+    }
+
+    private static void testFixture(String main) {
+        ClassHierarchy hierarchy = buildHierarchy(main);
+        check(hierarchy, hierarchy.allClasses().collect(Collectors.toSet()),
+                getQueriedClasses(hierarchy));
+    }
+
+    @Test
+    public void testStaticCall() {
+        testFixture("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        testFixture("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        testFixture("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        testFixture("AbstractMethod");
+    }
+
+    /**
+     * Adds the application classes and some library types one by one
+     * after the subclass index has been built, so that the index is
+     * rebuilt for the new classes.
+     */
+    @Test
+    public void testAddClassesAfterIndexing() {
+        ClassHierarchy complete = buildHierarchy("VirtualCall");
+        List<JClass> lateClasses = new ArrayList<>(
+                complete.applicationClasses().toList());
+        LATE_LIBRARY_TYPES.stream()
+                .map(complete::getClass)
+                .filter(Objects::nonNull)
+                .forEach(lateClasses::add);
+        ClassHierarchyImpl hierarchy = new ClassHierarchyImpl();
+        hierarchy.setDefaultClassLoader(complete.getDefaultClassLoader());
+        hierarchy.setBootstrapClassLoader(complete.getBootstrapClassLoader());
+        Set<JClass> added = new HashSet<>();
+        complete.allClasses()
+                .filter(c -> !lateClasses.contains(c))
+                .forEach(c -> {
+                    hierarchy.addClass(c);
+                    added.add(c);
+                });
+        List<JClass> queried = getQueriedClasses(complete);
+        hierarchy.freeze();
+        check(hierarchy, added, queried);
+        for (JClass jclass : lateClasses) {
+            hierarchy.addClass(jclass);
+            added.add(jclass);
+            check(hierarchy, added, queried);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import org.junit.Test;
+import pascal.taie.analysis.graph.callgraph.AbstractCallGraph;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CondensedGraphTest {
+
+    /**
+     * A small cyclic graph: {0, 1, 2} and {4, 5} are cycles,
+     * 3 has a self-loop, and 8 and 9 are not in any cycle.
+     */
+    static SimpleGraph<Integer> cyclicGraph() {
+        SimpleGraph<Integer> graph = new SimpleGraph<>();
+        for (int i = 0; i < 10; ++i) {
+            graph.addNode(i);
+        }
+        int[][] edges = {
+                {0, 1}, {1, 2}, {2, 0}, {2, 3}, {3, 3}, {3, 4}, {4, 5},
+                {5, 4}, {1, 6}, {6, 7}, {7, 5}, {8, 6}, {8, 9},
+        };
+        for (int[] edge : edges) {
+            graph.addEdge(edge[0], edge[1]);
+        }
+        return graph;
+    }
+
+    @Test
+    public void testComponents() {
+        SimpleGraph<Integer> graph = cyclicGraph();
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(graph);
+        Set<Set<Integer>> expected = new SCC<>(graph).getComponents()
+                .stream()
+                .map(HashSet::new)
+                .collect(Collectors.toSet());
+        Set<Set<Integer>> actual = condensed.getBottomUpOrder()
+                .stream()
+                .map(c -> new HashSet<>(c.getNodes()))
+                .collect(Collectors.toSet());
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), condensed.getNumberOfNodes());
+        for (Integer node : graph) {
+            CondensedGraph.Component<Integer> component = condensed.getComponentOf(node);
+            assertTrue(component.getNodes().contains(node));
+            assertTrue(condensed.hasNode(component));
+            boolean recursive = component.getNodes().size() > 1 ||
+                    graph.hasEdge(node, node);
+            assertEquals(recursive, component.isRecursive());
+        }
+        assertEquals(Set.of(0, 1, 2), Set.copyOf(condensed.getComponentOf(0).getNodes()));
+        assertEquals(Set.of(4, 5), Set.copyOf(condensed.getComponentOf(4).getNodes()));
+        assertTrue(condensed.getComponentOf(3).isRecursive());
+        assertFalse(condensed.getComponentOf(8).isRecursive());
+    }
+
+    @Test
+    public void testEdges() {
+        SimpleGraph<Integer> graph = cyclicGraph();
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(graph);
+        // each edge between components comes from an edge of the graph
+        Set<List<CondensedGraph.Component<Integer>>> expected = new HashSet<>();
+        for (Integer node : graph) {
+            for (Integer succ : graph.getSuccsOf(node)) {
+                CondensedGraph.Component<Integer> source = condensed.getComponentOf(node);
+                CondensedGraph.Component<Integer> target = condensed.getComponentOf(succ);
+                if (source != target) {
+                    expected.add(List.of(source, target));
+                }
+            }
+        }
+        Set<List<CondensedGraph.Component<Integer>>> actual = new HashSet<>();
+        for (CondensedGraph.Component<Integer> component : condensed) {
+            for (CondensedGraph.Component<Integer> succ : condensed.getSuccsOf(component)) {
+                assertTrue(condensed.hasEdge(component, succ));
+                assertTrue(condensed.getPredsOf(succ).contains(component));
+                actual.add(List.of(component, succ));
+            }
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testOrders() {
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(cyclicGraph());
+        List<CondensedGraph.Component<Integer>> bottomUp = condensed.getBottomUpOrder();
+        List<CondensedGraph.Component<Integer>> topDown = condensed.getTopDownOrder();
+        assertEquals(bottomUp.size(), topDown.size());
+        for (int i = 0; i < bottomUp.size(); ++i) {
+            assertEquals(i, bottomUp.get(i).getIndex());
+            assertSame(bottomUp.get(i), topDown.get(topDown.size() - 1 - i));
+        }
+        for (CondensedGraph.Component<Integer> component : bottomUp) {
+            for (CondensedGraph.Component<Integer> succ : condensed.getSuccsOf(component)) {
+                assertTrue(succ.getIndex() < component.getIndex());
+                assertTrue(topDown.indexOf(component) < topDown.indexOf(succ));
+            }
+        }
+    }
+
+    @Test
+    public void testLevels() {
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(cyclicGraph());
+        Map<CondensedGraph.Component<Integer>, Integer> bottomUp =
+                levelsOf(condensed.getBottomUpLevels());
+        Map<CondensedGraph.Component<Integer>, Integer> topDown =
+                levelsOf(condensed.getTopDownLevels());
+        assertEquals(condensed.getNodes(), bottomUp.keySet());
+        assertEquals(condensed.getNodes(), topDown.keySet());
+        for (CondensedGraph.Component<Integer> component : condensed) {
+            for (CondensedGraph.Component<Integer> succ : condensed.getSuccsOf(component)) {
+                assertTrue(bottomUp.get(succ) < bottomUp.get(component));
+                assertTrue(topDown.get(component) < topDown.get(succ));
+            }
+        }
+    }
+
+    private static <N> Map<CondensedGraph.Component<N>, Integer> levelsOf(
+            List<List<CondensedGraph.Component<N>>> levels) {
+        Map<CondensedGraph.Component<N>, Integer> result = new HashMap<>();
+        for (int i = 0; i < levels.size(); ++i) {
+            assertFalse(levels.get(i).isEmpty());
+            for (CondensedGraph.Component<N> component : levels.get(i)) {
+                assertEquals(null, result.put(component, i));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testScheduler() {
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(cyclicGraph());
+        // each task checks that the components it depends on are finished
+        Set<CondensedGraph.Component<Integer>> finished = ConcurrentHashMap.newKeySet();
+        List<String> violations = new ArrayList<>();
+        SCCScheduler.runBottomUp(condensed, component -> {
+            if (!finished.containsAll(condensed.getSuccsOf(component))) {
+                synchronized (violations) {
+                    violations.add("bottom-up: " + component);
+                }
+            }
+            finished.add(component);
+        });
+        assertEquals(condensed.getNodes(), finished);
+        finished.clear();
+        SCCScheduler.runTopDown(condensed, component -> {
+            if (!finished.containsAll(condensed.getPredsOf(component))) {
+                synchronized (violations) {
+                    violations.add("top-down: " + component);
+                }
+            }
+            finished.add(component);
+        });
+        assertEquals(condensed.getNodes(), finished);
+        assertEquals(List.of(), violations);
+    }
+
+    /**
+     * A long cycle must not overflow the stack of the depth-first search.
+     */
+    @Test
+    public void testDeepGraph() {
+        int n = 100_000;
+        SimpleGraph<Integer> graph = new SimpleGraph<>();
+        for (int i = 0; i < n; ++i) {
+            graph.addNode(i);
+        }
+        for (int i = 0; i < n; ++i) {
+            graph.addEdge(i, (i + 1) % n);
+        }
+        CondensedGraph<Integer> condensed = new CondensedGraph<>(graph);
+        assertEquals(1, condensed.getNumberOfNodes());
+        assertEquals(n, condensed.getComponentOf(0).getNodes().size());
+        assertTrue(condensed.getComponentOf(0).isRecursive());
+    }
+
+    @Test
+    public void testCachedCondensedGraph() {
+        StringCallGraph callGraph = new StringCallGraph();
+        callGraph.addEdge("main", "main.0", "foo");
+        callGraph.addEdge("foo", "foo.0", "main");
+        CondensedGraph<String> condensed = callGraph.getCondensedGraph();
+        assertSame(condensed, callGraph.getCondensedGraph());
+        assertEquals(1, condensed.getNumberOfNodes());
+        // the cache is recomputed after the call graph changes
+        callGraph.addEdge("foo", "foo.1", "bar");
+        CondensedGraph<String> updated = callGraph.getCondensedGraph();
+        assertNotSame(condensed, updated);
+        assertEquals(2, updated.getNumberOfNodes());
+    }
+
+    /**
+     * Call graph whose methods and call sites are strings.
+     */
+    private static class StringCallGraph extends AbstractCallGraph<String, String> {
+
+        private void addEdge(String caller, String callSite, String callee) {
+            reachableMethods.add(caller);
+            reachableMethods.add(callee);
+            callSiteToContainer.put(callSite, caller);
+            callSitesIn.put(caller, callSite);
+            Edge<String, String> edge = new Edge<>(CallKind.STATIC, callSite, callee);
+            callSiteToEdges.put(callSite, edge);
+            calleeToEdges.put(callee, edge);
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getResult(Stmt stmt) {
+            return Set.of();
+        }
+    }
+}
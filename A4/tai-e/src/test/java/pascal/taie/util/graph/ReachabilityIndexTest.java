@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ReachabilityIndexTest {
+
+    /**
+     * @return the nodes reachable from given node via at least one edge,
+     * computed by breadth-first search.
+     */
+    private static <N> Set<N> bfs(N source, Function<N, Set<N>> succs) {
+        Set<N> visited = new HashSet<>();
+        Deque<N> workList = new ArrayDeque<>(succs.apply(source));
+        while (!workList.isEmpty()) {
+            N node = workList.poll();
+            if (visited.add(node)) {
+                workList.addAll(succs.apply(node));
+            }
+        }
+        return visited;
+    }
+
+    private static <N> void check(Graph<N> graph) {
+        ReachabilityIndex<N> index = new ReachabilityIndex<>(graph);
+        for (N source : graph) {
+            Set<N> reachable = bfs(source, graph::getSuccsOf);
+            assertEquals("reachable nodes of " + source,
+                    reachable, index.getReachableNodes(source));
+            assertEquals("reaching nodes of " + source,
+                    bfs(source, graph::getPredsOf), index.getReachingNodes(source));
+            for (N target : graph) {
+                assertEquals(source + " reaches " + target,
+                        reachable.contains(target), index.reaches(source, target));
+            }
+        }
+    }
+
+    @Test
+    public void testCyclicGraph() {
+        check(CondensedGraphTest.cyclicGraph());
+    }
+
+    @Test
+    public void testAbsentNodes() {
+        ReachabilityIndex<Integer> index = new ReachabilityIndex<>(
+                CondensedGraphTest.cyclicGraph());
+        assertFalse(index.reaches(0, 10));
+        assertEquals(Set.of(), index.getReachableNodes(10));
+        assertEquals(Set.of(), index.getReachingNodes(10));
+    }
+
+    /**
+     * Random graphs have many non-tree edges in the depth-first forest,
+     * which are answered by the transitive closure.
+     */
+    @Test
+    public void testRandomGraphs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; ++round) {
+            int n = 30;
+            SimpleGraph<Integer> graph = new SimpleGraph<>();
+            for (int i = 0; i < n; ++i) {
+                graph.addNode(i);
+            }
+            for (int e = 0; e < n + round * 2; ++e) {
+                graph.addEdge(random.nextInt(n), random.nextInt(n));
+            }
+            check(graph);
+        }
+    }
+}
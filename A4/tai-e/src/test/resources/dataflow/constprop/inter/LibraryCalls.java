@@ -0,0 +1,9 @@
+public class LibraryCalls {
+
+    public static void main(String[] args) {
+        int a = 3;
+        int b = 5;
+        int c = Math.abs(a);
+        int d = Math.floorMod(b, a);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+
+/**
+ * Program-wide indexers, which assign dense indexes to the elements
+ * of the program and of the abstract heap. Unlike {@link Var#getIndex()},
+ * the indexes are unique in the whole program.
+ * <p>
+ * The indexers are shared by all analyses, and are reset when the world
+ * is reset.
+ */
+public final class Indexers {
+
+    private static volatile Indexer<Var> vars;
+
+    private static volatile Indexer<Obj> objs;
+
+    private static volatile Indexer<JField> fields;
+
+    private static volatile Indexer<JMethod> methods;
+
+    private static volatile Indexer<Invoke> invokes;
+
+    static {
+        reset();
+        World.registerResetCallback(Indexers::reset);
+    }
+
+    private Indexers() {
+    }
+
+    private static synchronized void reset() {
+        vars = new Indexer<>();
+        objs = new Indexer<>();
+        fields = new Indexer<>();
+        methods = new Indexer<>();
+        invokes = new Indexer<>();
+    }
+
+    public static Indexer<Var> getVarIndexer() {
+        return vars;
+    }
+
+    public static Indexer<Obj> getObjIndexer() {
+        return objs;
+    }
+
+    public static Indexer<JField> getFieldIndexer() {
+        return fields;
+    }
+
+    public static Indexer<JMethod> getMethodIndexer() {
+        return methods;
+    }
+
+    public static Indexer<Invoke> getInvokeIndexer() {
+        return invokes;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Global virtual dispatch table, which maps each class of receiver
+ * objects to its virtual table, i.e., the map from subsignatures to
+ * the methods dispatched on the class.
+ * <p>
+ * The virtual tables are filled lazily and can be accessed by multiple
+ * threads. Failed dispatches are also recorded, so that each pair of
+ * receiver class and subsignature is looked up in the class hierarchy
+ * only once. The table is cleared when the world is reset.
+ */
+public final class DispatchTable {
+
+    /**
+     * Marks the failed dispatches in virtual tables.
+     */
+    private static final Object NONE = new Object();
+
+    private static final Map<JClass, Map<Subsignature, Object>> vtables
+            = Maps.newConcurrentMap();
+
+    static {
+        World.registerResetCallback(vtables::clear);
+    }
+
+    private DispatchTable() {
+    }
+
+    /**
+     * Resolves the callee of a call site like
+     * {@link CallGraphs#resolveCallee(Type, Invoke)}, but dispatches
+     * virtual and interface calls through the dispatch table.
+     */
+    @Nullable
+    public static JMethod resolveCallee(Type type, Invoke callSite) {
+        if (callSite.isVirtual() || callSite.isInterface()) {
+            return dispatch(type, callSite.getMethodRef().getSubsignature());
+        }
+        return CallGraphs.resolveCallee(type, callSite);
+    }
+
+    /**
+     * @return the method dispatched on given receiver type with given
+     * subsignature, or null if no satisfying method can be found.
+     */
+    @Nullable
+    public static JMethod dispatch(Type type, Subsignature subsignature) {
+        JClass jclass;
+        if (type instanceof ClassType classType) {
+            jclass = classType.getJClass();
+        } else if (type instanceof ArrayType) {
+            jclass = World.get().getClassHierarchy()
+                    .getJREClass(ClassNames.OBJECT);
+        } else {
+            throw new AnalysisException(type + " cannot be dispatched");
+        }
+        Map<Subsignature, Object> vtable = vtables.computeIfAbsent(
+                jclass, c -> Maps.newConcurrentMap());
+        Object method = vtable.get(subsignature);
+        if (method == null) {
+            JMethod result = lookup(jclass, subsignature);
+            method = result != null ? result : NONE;
+            vtable.put(subsignature, method);
+        }
+        return method != NONE ? (JMethod) method : null;
+    }
+
+    /**
+     * Looks up the first non-abstract method with given subsignature
+     * in the superclasses of given class, and then in its superinterfaces
+     * (for default methods).
+     */
+    @Nullable
+    private static JMethod lookup(JClass jclass, Subsignature subsignature) {
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            JMethod method = c.getDeclaredMethod(subsignature);
+            if (method != null && !method.isAbstract()) {
+                return method;
+            }
+        }
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            for (JClass iface : c.getInterfaces()) {
+                JMethod method = lookupInSuperinterfaces(iface, subsignature);
+                if (method != null) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static JMethod lookupInSuperinterfaces(
+            JClass iface, Subsignature subsignature) {
+        JMethod method = iface.getDeclaredMethod(subsignature);
+        if (method != null && !method.isAbstract()) {
+            return method;
+        }
+        for (JClass superinterface : iface.getInterfaces()) {
+            method = lookupInSuperinterfaces(superinterface, subsignature);
+            if (method != null) {
+                return method;
+            }
+        }
+        return null;
+    }
+}
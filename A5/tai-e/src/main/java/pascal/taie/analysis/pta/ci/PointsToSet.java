@@ -22,34 +22,52 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.analysis.Indexers;
 import pascal.taie.analysis.pta.core.heap.Obj;
-import pascal.taie.util.collection.Sets;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.SparseBitSet;
 
-import java.util.Collections;
+import java.util.AbstractSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * Represents of points-to sets.
+ * The objects are stored as a sparse bit vector of their indexes
+ * given by {@link Indexers#getObjIndexer()}.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private final Indexer<Obj> objIndexer = Indexers.getObjIndexer();
+
+    private final SparseBitSet set;
+
+    /**
+     * Set view of the objects, created on first use.
+     */
+    private Set<Obj> objects;
 
     /**
      * Constructs an empty points-to set.
      */
     PointsToSet() {
+        this(new SparseBitSet());
     }
 
     /**
      * Constructs a points-to set containing one object.
      */
     PointsToSet(Obj obj) {
+        this();
         addObject(obj);
     }
 
+    private PointsToSet(SparseBitSet set) {
+        this.set = set;
+    }
+
     /**
      * Adds an object to this set.
      *
@@ -57,14 +75,31 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
-        return set.add(obj);
+        return set.set(objIndexer.getIndex(obj));
+    }
+
+    /**
+     * Adds all objects of another points-to set to this set.
+     *
+     * @return a new points-to set of the objects that were not in this set.
+     */
+    PointsToSet addAll(PointsToSet pts) {
+        return new PointsToSet(set.addAll(pts.set));
+    }
+
+    /**
+     * Adds all objects of another points-to set to this set, without
+     * computing the objects that were not in this set.
+     */
+    void union(PointsToSet pts) {
+        set.or(pts.set);
     }
 
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
     boolean contains(Obj obj) {
-        return set.contains(obj);
+        return objIndexer.isIndexed(obj) && set.get(objIndexer.getIndex(obj));
     }
 
     /**
@@ -78,30 +113,72 @@ class PointsToSet implements Iterable<Obj> {
      * @return the number of objects in this set.
      */
     int size() {
-        return set.size();
+        return set.cardinality();
     }
 
     /**
      * @return all objects in this set.
      */
     Stream<Obj> objects() {
-        return set.stream();
+        return set.stream().mapToObj(objIndexer::getObject);
     }
 
     /**
-     * @return all objects in this set.
+     * @return an unmodifiable view of all objects in this set. The same
+     * view is returned for the pointers sharing this set.
      */
     Set<Obj> getObjects() {
-        return Collections.unmodifiableSet(set);
+        if (objects == null) {
+            objects = new AbstractSet<>() {
+
+                @Override
+                public boolean contains(Object o) {
+                    return o instanceof Obj obj && PointsToSet.this.contains(obj);
+                }
+
+                @Override
+                public Iterator<Obj> iterator() {
+                    return PointsToSet.this.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return PointsToSet.this.size();
+                }
+            };
+        }
+        return objects;
     }
 
     @Override
     public Iterator<Obj> iterator() {
-        return set.iterator();
+        PrimitiveIterator.OfInt it = set.iterator();
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public Obj next() {
+                return objIndexer.getObject(it.nextInt());
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof PointsToSet that && set.equals(that.set));
+    }
+
+    @Override
+    public int hashCode() {
+        return set.hashCode();
     }
 
     @Override
     public String toString() {
-        return set.toString();
+        return getObjects().toString();
     }
 }
@@ -27,9 +27,9 @@ import jdk.jshell.VarSnippet;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.DispatchTable;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
@@ -41,9 +41,14 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class Solver {
 
@@ -61,8 +66,21 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * PFG edges (between representatives) that have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
+    /**
+     * Finds pointer-equivalent variables of new reachable methods,
+     * or null if offline variable substitution is disabled.
+     */
+    private final VarSubstitution varSubstitution;
+
+    Solver(HeapModel heapModel, boolean varSubstitution) {
         this.heapModel = heapModel;
+        this.varSubstitution = varSubstitution ?
+                new VarSubstitution(heapModel) : null;
     }
 
     /**
@@ -77,8 +95,9 @@ class Solver {
      * Initializes pointer analysis.
      */
     private void initialize() {
-        workList = new WorkList();
         pointerFlowGraph = new PointerFlowGraph();
+        workList = new WorkList(pointerFlowGraph);
+        checkedEdges = Maps.newMultiMap();
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
         hierarchy = World.get().getClassHierarchy();
@@ -94,6 +113,9 @@ class Solver {
     private void addReachable(JMethod method) {
         // TODO - finished
         if(callGraph.addReachableMethod(method)) {
+            if(varSubstitution != null) {
+                mergeEquivalentVars(method);
+            }
             for(Stmt stmt:method.getIR().getStmts()) {
                 // System.out.println(stmt);
                 stmt.accept(stmtProcessor);
@@ -101,6 +123,25 @@ class Solver {
         }
     }
 
+    /**
+     * Merges the pointer-equivalent variables of given method before its
+     * statements are processed, so that each class of them is solved as
+     * one pointer. The merged variables share the points-to set of their
+     * representative, which is how the results are expanded back to them.
+     */
+    private void mergeEquivalentVars(JMethod method) {
+        for(List<Var> vars:varSubstitution.computeEquivalentVars(method)) {
+            Set<Pointer> pointers = Sets.newSet();
+            for(Var var:vars) {
+                pointers.add(pointerFlowGraph.getRepresentative(
+                        pointerFlowGraph.getVarPtr(var)));
+            }
+            if(pointers.size() > 1) {
+                collapse(pointers);
+            }
+        }
+    }
+
     /**
      * Processes statements in new reachable methods.
      */
@@ -202,48 +243,60 @@ class Solver {
         // TODO - finish me
         while(!workList.isEmpty()) {
             WorkList.Entry workSet = workList.pollEntry();
-            Pointer n = workSet.pointer();
+            Pointer n = pointerFlowGraph.getRepresentative(workSet.pointer());
             PointsToSet pts = workSet.pointsToSet();
             PointsToSet delta = propagate(n, pts);
 
-            if(n instanceof VarPtr varPtr) {
-                Var var = varPtr.getVar();
-                for(Obj obj:delta) {
-                    // store field
-                    // x.f=y
-                    for(StoreField storeField : var.getStoreFields()) {
-                        Pointer left = pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve());
-                        Pointer right = pointerFlowGraph.getVarPtr(storeField.getRValue());
-                        addPFGEdge(right, left);
+            if(!delta.isEmpty()) {
+                for(Pointer member : pointerFlowGraph.getMembersOf(n)) {
+                    if(member instanceof VarPtr varPtr) {
+                        processVar(varPtr.getVar(), delta);
                     }
+                }
+                detectCycles(n);
+            }
+        }
+    }
 
-                    // load field
-                    // y=x.f
-                    for(LoadField loadField : var.getLoadFields()) {
-                        Pointer left = pointerFlowGraph.getVarPtr(loadField.getLValue());
-                        Pointer right = pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve());
-                        addPFGEdge(right, left);
-                    }
+    /**
+     * Processes the field/array accesses and instance calls on given
+     * variable for the new objects it points to.
+     */
+    private void processVar(Var var, PointsToSet delta) {
+        for(Obj obj:delta) {
+            // store field
+            // x.f=y
+            for(StoreField storeField : var.getStoreFields()) {
+                Pointer left = pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve());
+                Pointer right = pointerFlowGraph.getVarPtr(storeField.getRValue());
+                addPFGEdge(right, left);
+            }
 
-                    // store array
-                    // x[*]=y
-                    for(StoreArray storeArray : var.getStoreArrays()) {
-                        Pointer left = pointerFlowGraph.getArrayIndex(obj);
-                        Pointer right = pointerFlowGraph.getVarPtr(storeArray.getRValue());
-                        addPFGEdge(right, left);
-                    }
+            // load field
+            // y=x.f
+            for(LoadField loadField : var.getLoadFields()) {
+                Pointer left = pointerFlowGraph.getVarPtr(loadField.getLValue());
+                Pointer right = pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve());
+                addPFGEdge(right, left);
+            }
 
-                    // load array
-                    // y=x[*]
-                    for(LoadArray loadArray : var.getLoadArrays()) {
-                        Pointer left = pointerFlowGraph.getVarPtr(loadArray.getLValue());
-                        Pointer right = pointerFlowGraph.getArrayIndex(obj);
-                        addPFGEdge(right, left);
-                    }
+            // store array
+            // x[*]=y
+            for(StoreArray storeArray : var.getStoreArrays()) {
+                Pointer left = pointerFlowGraph.getArrayIndex(obj);
+                Pointer right = pointerFlowGraph.getVarPtr(storeArray.getRValue());
+                addPFGEdge(right, left);
+            }
 
-                    processCall(var, obj);
-                }
+            // load array
+            // y=x[*]
+            for(LoadArray loadArray : var.getLoadArrays()) {
+                Pointer left = pointerFlowGraph.getVarPtr(loadArray.getLValue());
+                Pointer right = pointerFlowGraph.getArrayIndex(obj);
+                addPFGEdge(right, left);
             }
+
+            processCall(var, obj);
         }
     }
 
@@ -253,14 +306,7 @@ class Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finished
-        PointsToSet delta = new PointsToSet();
-
-        for(Obj obj:pointsToSet) {
-            if(!pointer.getPointsToSet().contains(obj)) {
-                pointer.getPointsToSet().addObject(obj);
-                delta.addObject(obj);
-            }
-        }
+        PointsToSet delta = pointer.getPointsToSet().addAll(pointsToSet);
         if(!delta.isEmpty()) {
             for(Pointer n:pointerFlowGraph.getSuccsOf(pointer)) {
                 workList.addEntry(n, delta);
@@ -270,6 +316,64 @@ class Solver {
         return delta;
     }
 
+    /**
+     * Lazy cycle detection: if a successor of the pointer already has the
+     * same points-to set as the pointer after propagation, the new objects
+     * have probably come back around a cycle, so the cycles reachable from
+     * the pointer are searched and collapsed. Each edge triggers the search
+     * at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        boolean suspicious = false;
+        for(Pointer succ:pointerFlowGraph.getSuccsOf(pointer)) {
+            succ = pointerFlowGraph.getRepresentative(succ);
+            if(succ != pointer
+                    && succ.getPointsToSet().size() == pts.size()
+                    && succ.getPointsToSet().equals(pts)
+                    && checkedEdges.put(pointer, succ)) {
+                suspicious = true;
+            }
+        }
+        if(suspicious) {
+            for(Set<Pointer> cycle:pointerFlowGraph.findCyclesFrom(pointer)) {
+                collapse(cycle);
+            }
+        }
+    }
+
+    /**
+     * Collapses pointers that must have identical points-to sets, e.g.,
+     * a cycle of the PFG, into one representative, and processes
+     * the objects that each of the pointers has not seen yet.
+     */
+    private void collapse(Set<Pointer> cycle) {
+        PointsToSet union = new PointsToSet();
+        for(Pointer p:cycle) {
+            union.union(p.getPointsToSet());
+        }
+        Map<Pointer, PointsToSet> deltas = Maps.newMap();
+        Map<Pointer, List<Pointer>> members = Maps.newMap();
+        for(Pointer p:cycle) {
+            PointsToSet delta = p.getPointsToSet().addAll(union);
+            if(!delta.isEmpty()) {
+                deltas.put(p, delta);
+                members.put(p, List.copyOf(pointerFlowGraph.getMembersOf(p)));
+            }
+        }
+        Pointer rep = pointerFlowGraph.mergeCycle(cycle);
+        deltas.forEach((p, delta) -> {
+            for(Pointer member:members.get(p)) {
+                if(member instanceof VarPtr varPtr) {
+                    processVar(varPtr.getVar(), delta);
+                }
+            }
+            for(Pointer succ:pointerFlowGraph.getSuccsOf(rep)) {
+                workList.addEntry(succ, delta);
+            }
+        });
+    }
+
     /**
      * Processes instance calls when points-to set of the receiver variable changes.
      *
@@ -295,7 +399,7 @@ class Solver {
      */
     private JMethod resolveCallee(Obj recv, Invoke callSite) {
         Type type = recv != null ? recv.getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return DispatchTable.resolveCallee(type, callSite);
     }
 
     CIPTAResult getResult() {
@@ -0,0 +1,287 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SparseBitSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline variable substitution, which finds the variables of a method
+ * that must have identical points-to sets by hash-based value numbering
+ * (HVN), extended with the load rule of HU.
+ * <p>
+ * Each variable is labeled by the sources that flow to it in the pointer
+ * flow graph built by {@link Solver}: the allocation site of {@link New},
+ * the field of static {@link LoadField}, the pair (value number of base,
+ * field) of instance {@link LoadField} and {@link LoadArray}, and the
+ * variable itself for parameters, this variable and results of
+ * {@link Invoke}, whose sources are in other methods. {@link Copy} unites
+ * the labels of its right-hand side into its left-hand side. Variables
+ * with the same label set are pointer-equivalent, and the value number
+ * of a variable identifies its label set.
+ */
+class VarSubstitution {
+
+    /**
+     * Field of array loads, as array indexes are not distinguished.
+     */
+    private static final Object ARRAY_INDEX = new Object();
+
+    private final HeapModel heapModel;
+
+    VarSubstitution(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * @return the classes of pointer-equivalent variables in given method,
+     * each of which contains at least two variables. Only the variables
+     * that are given pointers as soon as the method is reachable, i.e.,
+     * the variables of {@link New}, {@link Copy} and static {@link LoadField},
+     * are included, so that merging them adds no pointers.
+     */
+    List<List<Var>> computeEquivalentVars(JMethod method) {
+        IR ir = method.getIR();
+        Map<Object, Integer> labels = Maps.newMap();
+        Map<Var, SparseBitSet> labelSets = Maps.newMap();
+        MultiMap<Var, Var> copySources = Maps.newMultiMap();
+        MultiMap<Var, Load> loads = Maps.newMultiMap();
+        // successors of a variable are the variables whose labels depend on it
+        MultiMap<Var, Var> dependents = Maps.newMultiMap();
+        Set<Var> candidates = Sets.newSet();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof New newStmt) {
+                Var var = newStmt.getLValue();
+                addLabel(labelSets, var, labels, heapModel.getObj(newStmt));
+                candidates.add(var);
+            } else if (stmt instanceof Copy copy) {
+                Var lhs = copy.getLValue();
+                Var rhs = copy.getRValue();
+                copySources.put(lhs, rhs);
+                dependents.put(rhs, lhs);
+                candidates.add(lhs);
+                candidates.add(rhs);
+            } else if (stmt instanceof LoadField load) {
+                Var var = load.getLValue();
+                if (load.isStatic()) {
+                    addLabel(labelSets, var, labels, load.getFieldRef().resolve());
+                    candidates.add(var);
+                } else {
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    loads.put(var, new Load(base, load.getFieldRef().resolve()));
+                    dependents.put(base, var);
+                }
+            } else if (stmt instanceof LoadArray load) {
+                Var var = load.getLValue();
+                Var base = load.getArrayAccess().getBase();
+                loads.put(var, new Load(base, ARRAY_INDEX));
+                dependents.put(base, var);
+            } else if (stmt instanceof Invoke invoke && invoke.getLValue() != null) {
+                Var var = invoke.getLValue();
+                addLabel(labelSets, var, labels, var);
+            }
+        }
+        for (Var param : ir.getParams()) {
+            addLabel(labelSets, param, labels, param);
+        }
+        if (ir.getThis() != null) {
+            addLabel(labelSets, ir.getThis(), labels, ir.getThis());
+        }
+        // number the variables in topological order of their dependencies
+        Map<SparseBitSet, Integer> valueNumbers = Maps.newMap();
+        Map<Var, Integer> varValueNumbers = Maps.newMap();
+        List<Set<Var>> sccs = computeSCCs(ir.getVars(), dependents);
+        Collections.reverse(sccs);
+        for (Set<Var> scc : sccs) {
+            boolean loadInSCC = scc.stream()
+                    .flatMap(v -> loads.get(v).stream())
+                    .anyMatch(load -> scc.contains(load.base()));
+            if (loadInSCC) {
+                // the label of such a load is unknown until its base is
+                // numbered, so give each variable a unique label instead
+                for (Var var : scc) {
+                    SparseBitSet set = new SparseBitSet();
+                    set.set(getLabel(labels, var));
+                    labelSets.put(var, set);
+                    varValueNumbers.put(var, getValueNumber(valueNumbers, set));
+                }
+            } else {
+                // variables in a cycle of copies share their labels
+                SparseBitSet set = new SparseBitSet();
+                for (Var var : scc) {
+                    SparseBitSet own = labelSets.get(var);
+                    if (own != null) {
+                        set.addAll(own);
+                    }
+                    for (Var source : copySources.get(var)) {
+                        if (!scc.contains(source)) {
+                            set.addAll(labelSets.get(source));
+                        }
+                    }
+                    for (Load load : loads.get(var)) {
+                        set.set(getLabel(labels, new LoadLabel(
+                                varValueNumbers.get(load.base()), load.field())));
+                    }
+                }
+                int valueNumber = getValueNumber(valueNumbers, set);
+                for (Var var : scc) {
+                    labelSets.put(var, set);
+                    varValueNumbers.put(var, valueNumber);
+                }
+            }
+        }
+        // group the candidates by value number
+        Map<Integer, List<Var>> classes = Maps.newMap();
+        for (Var var : ir.getVars()) {
+            if (candidates.contains(var)) {
+                classes.computeIfAbsent(varValueNumbers.get(var),
+                        __ -> new ArrayList<>()).add(var);
+            }
+        }
+        List<List<Var>> result = new ArrayList<>();
+        classes.values().forEach(vars -> {
+            if (vars.size() > 1) {
+                result.add(vars);
+            }
+        });
+        return result;
+    }
+
+    private static void addLabel(Map<Var, SparseBitSet> labelSets, Var var,
+                                 Map<Object, Integer> labels, Object key) {
+        labelSets.computeIfAbsent(var, __ -> new SparseBitSet())
+                .set(getLabel(labels, key));
+    }
+
+    private static int getLabel(Map<Object, Integer> labels, Object key) {
+        return labels.computeIfAbsent(key, __ -> labels.size());
+    }
+
+    private static int getValueNumber(
+            Map<SparseBitSet, Integer> valueNumbers, SparseBitSet labelSet) {
+        return valueNumbers.computeIfAbsent(labelSet, __ -> valueNumbers.size());
+    }
+
+    /**
+     * Computes the strongly connected components of the dependency graph
+     * by an iterative Tarjan's algorithm.
+     *
+     * @return the components in reverse topological order.
+     */
+    private static List<Set<Var>> computeSCCs(
+            List<Var> vars, MultiMap<Var, Var> dependents) {
+        Map<Var, Integer> indexes = Maps.newMap();
+        Map<Var, Integer> lowLinks = Maps.newMap();
+        Deque<Var> sccStack = new ArrayDeque<>();
+        Set<Var> onSCCStack = Sets.newSet();
+        Deque<Var> stack = new ArrayDeque<>();
+        Deque<Iterator<Var>> succIters = new ArrayDeque<>();
+        List<Set<Var>> sccs = new ArrayList<>();
+        for (Var root : vars) {
+            if (indexes.containsKey(root)) {
+                continue;
+            }
+            visit(root, indexes, lowLinks, sccStack, onSCCStack);
+            stack.push(root);
+            succIters.push(dependents.get(root).iterator());
+            while (!stack.isEmpty()) {
+                Var node = stack.peek();
+                Iterator<Var> succIter = succIters.peek();
+                if (succIter.hasNext()) {
+                    Var succ = succIter.next();
+                    if (!indexes.containsKey(succ)) {
+                        visit(succ, indexes, lowLinks, sccStack, onSCCStack);
+                        stack.push(succ);
+                        succIters.push(dependents.get(succ).iterator());
+                    } else if (onSCCStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                    }
+                } else {
+                    stack.pop();
+                    succIters.pop();
+                    int lowLink = lowLinks.get(node);
+                    if (!stack.isEmpty()) {
+                        Var parent = stack.peek();
+                        lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                    }
+                    if (lowLink == indexes.get(node)) {
+                        Set<Var> scc = Sets.newSet();
+                        Var v;
+                        do {
+                            v = sccStack.pop();
+                            onSCCStack.remove(v);
+                            scc.add(v);
+                        } while (v != node);
+                        sccs.add(scc);
+                    }
+                }
+            }
+        }
+        return sccs;
+    }
+
+    private static void visit(Var var, Map<Var, Integer> indexes,
+                              Map<Var, Integer> lowLinks,
+                              Deque<Var> sccStack, Set<Var> onSCCStack) {
+        int index = indexes.size();
+        indexes.put(var, index);
+        lowLinks.put(var, index);
+        sccStack.push(var);
+        onSCCStack.add(var);
+    }
+
+    /**
+     * Represents a load from the field of the base variable.
+     */
+    private record Load(Var base, Object field) {
+    }
+
+    /**
+     * Label of loads from the field of the base variables with
+     * the same value number.
+     */
+    private record LoadLabel(int baseValueNumber, Object field) {
+    }
+}
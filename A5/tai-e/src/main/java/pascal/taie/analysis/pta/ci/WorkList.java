@@ -22,21 +22,82 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import pascal.taie.util.collection.Maps;
+
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The work list keeps at most one pending entry for each pointer, and
+ * unites the points-to sets added for a pending pointer. The pointers
+ * are processed in rounds: each round takes the pointers that were
+ * pending when it started, in the topological order of the pointer flow
+ * graph, so that a pointer is usually processed after its predecessors
+ * and propagates their objects all at once.
+ * <p>
+ * The order only affects efficiency, thus it is not maintained on every
+ * modification of the pointer flow graph. Instead, it is recomputed when
+ * the graph has been modified as many times as half the cost of the last
+ * computation, so that the cost of the computations is amortized over
+ * the modifications; the pointers added in between are ordered last.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    private final PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Points-to sets of the pending pointers.
+     */
+    private final Map<Pointer, PointsToSet> entries = Maps.newMap();
+
+    /**
+     * Pointers to be processed in the current round.
+     */
+    private final Queue<Pointer> currentRound = new ArrayDeque<>();
+
+    /**
+     * Pending pointers that are not in the current round.
+     */
+    private List<Pointer> nextRound = new ArrayList<>();
+
+    /**
+     * Topological positions of the pointers in the pointer flow graph.
+     */
+    private Map<Pointer, Integer> positions = Maps.newMap();
+
+    /**
+     * The positions are recomputed once the modification count of the PFG
+     * reaches this value.
+     */
+    private int nextComputation = 0;
+
+    WorkList(PointerFlowGraph pointerFlowGraph) {
+        this.pointerFlowGraph = pointerFlowGraph;
+    }
 
     /**
-     * Adds an entry to the work list.
+     * Adds an entry to the work list for the representative of given
+     * pointer. If it is already pending, the points-to set is merged
+     * into its pending entry.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        pointer = pointerFlowGraph.getRepresentative(pointer);
+        PointsToSet pending = entries.get(pointer);
+        if (pending == null) {
+            // copy the given set as it may be shared or modified later
+            entries.put(pointer, new PointsToSet().addAll(pointsToSet));
+            nextRound.add(pointer);
+        } else {
+            pending.union(pointsToSet);
+        }
     }
 
     /**
@@ -44,7 +105,62 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        if (currentRound.isEmpty()) {
+            startRound();
+        }
+        Pointer pointer = currentRound.poll();
+        return pointer == null ? null : new Entry(pointer, entries.remove(pointer));
+    }
+
+    private void startRound() {
+        if (nextRound.isEmpty()) {
+            return;
+        }
+        if (pointerFlowGraph.getModCount() >= nextComputation) {
+            computePositions();
+        }
+        nextRound.sort(Comparator.comparingInt(
+                p -> positions.getOrDefault(p, Integer.MAX_VALUE)));
+        currentRound.addAll(nextRound);
+        nextRound = new ArrayList<>();
+    }
+
+    /**
+     * Computes the reverse post-order of the pointer flow graph by
+     * an iterative depth-first search, which is a topological order
+     * if the graph is acyclic.
+     */
+    private void computePositions() {
+        int size = pointerFlowGraph.getPointers().size();
+        int cost = size;
+        Map<Pointer, Integer> postOrder = Maps.newMap(size);
+        Map<Pointer, Boolean> visited = Maps.newMap(size);
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> succs = new ArrayDeque<>();
+        for (Pointer root : pointerFlowGraph.getPointers()) {
+            if (visited.putIfAbsent(root, true) != null) {
+                continue;
+            }
+            stack.push(root);
+            succs.push(pointerFlowGraph.getSuccsOf(root).iterator());
+            while (!stack.isEmpty()) {
+                Iterator<Pointer> it = succs.peek();
+                if (it.hasNext()) {
+                    Pointer succ = it.next();
+                    ++cost;
+                    if (visited.putIfAbsent(succ, true) == null) {
+                        stack.push(succ);
+                        succs.push(pointerFlowGraph.getSuccsOf(succ).iterator());
+                    }
+                } else {
+                    postOrder.put(stack.pop(), postOrder.size());
+                    succs.pop();
+                }
+            }
+        }
+        positions = Maps.newMap(size);
+        postOrder.forEach((p, i) -> positions.put(p, size - 1 - i));
+        nextComputation = pointerFlowGraph.getModCount() + Math.max(1, cost / 2);
     }
 
     /**
@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Assigns dense indexes (0, 1, 2, ...) to objects on their first request,
+ * and maps the indexes back to the objects. The indexes enable analyses
+ * to key their data structures by ints, e.g., in arrays and bit sets.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <E> type of indexed objects
+ */
+public class Indexer<E> implements IDProvider<E> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<E, Integer> indexes = Maps.newConcurrentMap();
+
+    /**
+     * Objects in the order of their indexes. The array is replaced
+     * when it grows, and only written while holding the lock.
+     */
+    private volatile Object[] objects = new Object[INITIAL_CAPACITY];
+
+    private volatile int size = 0;
+
+    /**
+     * @return the index of given object, which is assigned if the object
+     * has not been indexed.
+     */
+    public int getIndex(E e) {
+        Integer index = indexes.get(e);
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            index = indexes.get(e);
+            if (index == null) {
+                index = size;
+                if (index == objects.length) {
+                    objects = Arrays.copyOf(objects, objects.length * 2);
+                }
+                objects[index] = e;
+                size = index + 1;
+                indexes.put(e, index);
+            }
+            return index;
+        }
+    }
+
+    @Override
+    public int getID(E e) {
+        return getIndex(e);
+    }
+
+    /**
+     * @return true if given object has been indexed, otherwise false.
+     */
+    public boolean isIndexed(E e) {
+        return indexes.containsKey(e);
+    }
+
+    /**
+     * @return the object of given index.
+     * @throws IndexOutOfBoundsException if no object has the index.
+     */
+    @SuppressWarnings("unchecked")
+    public E getObject(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (E) objects[index];
+    }
+
+    /**
+     * @return the number of indexed objects. The indexes of all indexed
+     * objects are smaller than this number.
+     */
+    public int size() {
+        return size;
+    }
+}
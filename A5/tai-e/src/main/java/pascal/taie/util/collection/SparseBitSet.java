@@ -0,0 +1,265 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sparse bit set, which stores only the non-zero 64-bit words of
+ * a bit vector, as parallel arrays of word indexes (sorted) and words.
+ * It suits large, sparsely populated index spaces, such as the indexes
+ * of objects in points-to sets.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class SparseBitSet {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    /**
+     * Indexes of the non-zero words, in ascending order.
+     */
+    private int[] keys;
+
+    private long[] words;
+
+    /**
+     * Number of non-zero words.
+     */
+    private int length;
+
+    /**
+     * Number of set bits.
+     */
+    private int cardinality;
+
+    public SparseBitSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private SparseBitSet(int capacity) {
+        keys = new int[capacity];
+        words = new long[capacity];
+    }
+
+    /**
+     * @return true if the bit of given index is set, otherwise false.
+     */
+    public boolean get(int index) {
+        int pos = Arrays.binarySearch(keys, 0, length, index >>> 6);
+        return pos >= 0 && (words[pos] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit of given index.
+     *
+     * @return true if this set changed as a result of the call,
+     * otherwise false.
+     */
+    public boolean set(int index) {
+        int key = index >>> 6;
+        long bit = 1L << index;
+        int pos = Arrays.binarySearch(keys, 0, length, key);
+        if (pos >= 0) {
+            if ((words[pos] & bit) != 0) {
+                return false;
+            }
+            words[pos] |= bit;
+        } else {
+            pos = -pos - 1;
+            if (length == keys.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, length * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                words = Arrays.copyOf(words, capacity);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, length - pos);
+            System.arraycopy(words, pos, words, pos + 1, length - pos);
+            keys[pos] = key;
+            words[pos] = bit;
+            ++length;
+        }
+        ++cardinality;
+        return true;
+    }
+
+    /**
+     * Adds all bits of another set to this set.
+     *
+     * @return a new set of the bits that were not in this set,
+     * i.e., the difference of {@code other} and this set before the call.
+     */
+    public SparseBitSet addAll(SparseBitSet other) {
+        SparseBitSet diff = new SparseBitSet(Math.max(1, other.length));
+        merge(other, diff);
+        return diff;
+    }
+
+    /**
+     * Adds all bits of another set to this set. Unlike
+     * {@link #addAll(SparseBitSet)}, the difference is not computed.
+     */
+    public void or(SparseBitSet other) {
+        merge(other, null);
+    }
+
+    /**
+     * Merges the words of another set into this set in place if all its
+     * words are present in this set, otherwise into new arrays.
+     *
+     * @param diff if not null, receives the bits that were not in this set.
+     */
+    private void merge(SparseBitSet other, SparseBitSet diff) {
+        // count the words that are absent in this set
+        int newKeys = 0;
+        for (int i = 0, j = 0; j < other.length; ) {
+            if (i < length && keys[i] < other.keys[j]) {
+                ++i;
+            } else {
+                if (i >= length || keys[i] != other.keys[j]) {
+                    ++newKeys;
+                } else {
+                    ++i;
+                }
+                ++j;
+            }
+        }
+        int[] mergedKeys = keys;
+        long[] mergedWords = words;
+        if (newKeys > 0) {
+            mergedKeys = new int[length + newKeys];
+            mergedWords = new long[length + newKeys];
+        }
+        int addedBits = 0;
+        int i = 0, j = 0, k = 0;
+        while (i < length || j < other.length) {
+            if (j >= other.length || (i < length && keys[i] < other.keys[j])) {
+                mergedKeys[k] = keys[i];
+                mergedWords[k++] = words[i++];
+            } else {
+                int key = other.keys[j];
+                long word = other.words[j++];
+                long old = 0;
+                if (i < length && keys[i] == key) {
+                    old = words[i++];
+                }
+                long added = word & ~old;
+                if (added != 0) {
+                    addedBits += Long.bitCount(added);
+                    if (diff != null) {
+                        diff.keys[diff.length] = key;
+                        diff.words[diff.length++] = added;
+                    }
+                }
+                mergedKeys[k] = key;
+                mergedWords[k++] = old | word;
+            }
+        }
+        keys = mergedKeys;
+        words = mergedWords;
+        length = k;
+        cardinality += addedBits;
+        if (diff != null) {
+            diff.cardinality = addedBits;
+        }
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * @return the number of set bits.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return an iterator over the indexes of set bits, in ascending order.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            private int pos = 0;
+
+            private long word = length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && pos + 1 < length) {
+                    word = words[++pos];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int index = (keys[pos] << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return index;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SparseBitSet that)) {
+            return false;
+        }
+        // words are never zero, so equal sets have identical arrays
+        return cardinality == that.cardinality
+                && Arrays.equals(keys, 0, length, that.keys, 0, that.length)
+                && Arrays.equals(words, 0, length, that.words, 0, that.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < length; ++i) {
+            hash = 31 * hash + keys[i];
+            hash = 31 * hash + Long.hashCode(words[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * @return a stream of the indexes of set bits, in ascending order.
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(Spliterators.spliterator(iterator(),
+                cardinality, Spliterator.ORDERED | Spliterator.SORTED |
+                        Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+}
@@ -23,12 +23,25 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.ci.CIPTA;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class CIPTATest {
 
     static final String DIR = "cipta";
 
+    /**
+     * Enables offline variable substitution, which must not change
+     * the dumped points-to sets.
+     */
+    static final String VAR_SUBSTITUTION = "var-substitution:true";
+
     @Test
     public void testExample() {
         Tests.testCIPTA(DIR, "Example");
@@ -78,4 +91,75 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testExampleVarSubstitution() {
+        Tests.testCIPTA(DIR, "Example", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testArrayVarSubstitution() {
+        Tests.testCIPTA(DIR, "Array", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testAssignVarSubstitution() {
+        Tests.testCIPTA(DIR, "Assign", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testAssign2VarSubstitution() {
+        Tests.testCIPTA(DIR, "Assign2", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testStoreLoadVarSubstitution() {
+        Tests.testCIPTA(DIR, "StoreLoad", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testCallVarSubstitution() {
+        Tests.testCIPTA(DIR, "Call", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testInstanceFieldVarSubstitution() {
+        Tests.testCIPTA(DIR, "InstanceField", VAR_SUBSTITUTION);
+    }
+
+    @Test
+    public void testMergeParamVarSubstitution() {
+        Tests.testCIPTA(DIR, "MergeParam", VAR_SUBSTITUTION);
+    }
+
+    /**
+     * Checks that the cycle a1 -> a3 -> a2 -> a1 in A.cycle() of Assign2
+     * is collapsed, i.e., its variables share one points-to set, and that
+     * the dumped points-to sets are unchanged by the collapsing.
+     */
+    @Test
+    public void testCycle() {
+        Tests.testCIPTA(DIR, "Assign2");
+        PointerAnalysisResult result = World.get().getResult(CIPTA.ID);
+        JMethod cycle = World.get().getClassHierarchy()
+                .getClass("A").getDeclaredMethod("cycle");
+        Var a1 = getVar(cycle, "a1");
+        assertSame(result.getPointsToSet(a1),
+                result.getPointsToSet(getVar(cycle, "a2")));
+        assertSame(result.getPointsToSet(a1),
+                result.getPointsToSet(getVar(cycle, "a3")));
+        assertNotSame(result.getPointsToSet(a1),
+                result.getPointsToSet(getVar(cycle, "temp$0")));
+    }
+
+    /**
+     * @return the variable of given name in given method.
+     */
+    private static Var getVar(JMethod method, String name) {
+        return method.getIR().getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
 }
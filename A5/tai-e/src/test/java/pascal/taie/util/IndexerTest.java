@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IndexerTest {
+
+    /**
+     * Indexes are assigned as 0, 1, 2, ... in the order of first requests,
+     * and map back to the indexed objects.
+     */
+    @Test
+    public void testDenseIndexes() {
+        Indexer<String> indexer = new Indexer<>();
+        // more objects than the initial capacity of the indexer
+        int n = 5000;
+        for (int i = 0; i < n; ++i) {
+            String s = "o" + i;
+            assertFalse(indexer.isIndexed(s));
+            assertEquals(i, indexer.getIndex(s));
+            assertTrue(indexer.isIndexed(s));
+            assertEquals(i + 1, indexer.size());
+        }
+        // repeated requests return the same indexes
+        for (int i = n - 1; i >= 0; --i) {
+            String s = "o" + i;
+            assertEquals(i, indexer.getIndex(s));
+            assertEquals(s, indexer.getObject(i));
+            assertEquals(i, indexer.getID(s));
+        }
+        assertEquals(n, indexer.size());
+        assertOutOfBounds(indexer, -1);
+        assertOutOfBounds(indexer, n);
+    }
+
+    private static void assertOutOfBounds(Indexer<?> indexer, int index) {
+        try {
+            indexer.getObject(index);
+            fail("expected IndexOutOfBoundsException for " + index);
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Concurrent requests still give each object one index, and
+     * the indexes are dense.
+     */
+    @Test
+    public void testConcurrentIndexes() {
+        Indexer<Integer> indexer = new Indexer<>();
+        int n = 20000;
+        List<Integer> objects = IntStream.range(0, n).boxed().toList();
+        // each object is requested twice concurrently
+        IntStream.range(0, 2 * n).parallel()
+                .forEach(i -> indexer.getIndex(objects.get(i % n)));
+        assertEquals(n, indexer.size());
+        boolean[] seen = new boolean[n];
+        for (Integer object : objects) {
+            int index = indexer.getIndex(object);
+            assertTrue(0 <= index && index < n);
+            assertFalse(seen[index]);
+            seen[index] = true;
+            assertSame(object, indexer.getObject(index));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SparseBitSetTest {
+
+    private static SparseBitSet of(int... indexes) {
+        SparseBitSet set = new SparseBitSet();
+        for (int index : indexes) {
+            set.set(index);
+        }
+        return set;
+    }
+
+    private static SparseBitSet of(BitSet bits) {
+        return of(bits.stream().toArray());
+    }
+
+    private static BitSet toBitSet(SparseBitSet set) {
+        BitSet bits = new BitSet();
+        set.stream().forEach(bits::set);
+        return bits;
+    }
+
+    private static BitSet randomBits(Random random, int bound, int count) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < count; ++i) {
+            bits.set(random.nextInt(bound));
+        }
+        return bits;
+    }
+
+    private static void assertContent(BitSet expected, SparseBitSet actual) {
+        assertEquals(expected, toBitSet(actual));
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        for (int i = 0; i < expected.length() + 64; ++i) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testSet() {
+        SparseBitSet set = of(130, 3, 64, 3);
+        assertContent(BitSet.valueOf(new long[]{1L << 3, 1L, 1L << 2}), set);
+        assertFalse(set.set(64));
+        assertTrue(set.set(65));
+        assertEquals("[3, 64, 65, 130]",
+                Arrays.toString(set.stream().toArray()));
+    }
+
+    /**
+     * The returned set is the difference of the other set and this set
+     * before the call, and this set becomes the union.
+     */
+    @Test
+    public void testAddAllDelta() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; ++round) {
+            int bound = 1 + random.nextInt(5000);
+            BitSet a = randomBits(random, bound, random.nextInt(100));
+            BitSet b = randomBits(random, bound, random.nextInt(100));
+            SparseBitSet set = of(a);
+            SparseBitSet delta = set.addAll(of(b));
+            BitSet expectedDelta = (BitSet) b.clone();
+            expectedDelta.andNot(a);
+            BitSet union = (BitSet) a.clone();
+            union.or(b);
+            assertContent(expectedDelta, delta);
+            assertContent(union, set);
+        }
+    }
+
+    /**
+     * All words of the other set are present in this set,
+     * so they are merged in place.
+     */
+    @Test
+    public void testInPlaceMerge() {
+        SparseBitSet set = of(1, 70, 200);
+        SparseBitSet delta = set.addAll(of(2, 70, 71, 201));
+        assertContent(toBitSet(of(2, 71, 201)), delta);
+        assertContent(toBitSet(of(1, 2, 70, 71, 200, 201)), set);
+        assertEquals(set, of(1, 2, 70, 71, 200, 201));
+        // nothing new
+        assertTrue(set.addAll(of(1, 200)).isEmpty());
+        assertEquals(6, set.cardinality());
+    }
+
+    /**
+     * {@link SparseBitSet#or} gives the same union as
+     * {@link SparseBitSet#addAll} without computing the delta.
+     */
+    @Test
+    public void testOr() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; ++round) {
+            int bound = 1 + random.nextInt(5000);
+            BitSet a = randomBits(random, bound, random.nextInt(100));
+            BitSet b = randomBits(random, bound, random.nextInt(100));
+            SparseBitSet set = of(a);
+            set.or(of(b));
+            BitSet union = (BitSet) a.clone();
+            union.or(b);
+            assertContent(union, set);
+            SparseBitSet expected = of(a);
+            expected.addAll(of(b));
+            assertEquals(expected, set);
+        }
+        SparseBitSet set = of(1, 70);
+        set.or(set);
+        assertContent(toBitSet(of(1, 70)), set);
+    }
+
+    @Test
+    public void testSelfUnion() {
+        SparseBitSet set = of(5, 64, 1000);
+        SparseBitSet delta = set.addAll(set);
+        assertTrue(delta.isEmpty());
+        assertContent(toBitSet(of(5, 64, 1000)), set);
+        SparseBitSet empty = new SparseBitSet();
+        assertTrue(empty.addAll(empty).isEmpty());
+        assertTrue(empty.isEmpty());
+    }
+
+    /**
+     * Sets with the same bits are equal and have the same hash code,
+     * regardless of the capacities of their arrays.
+     */
+    @Test
+    public void testEqualsAcrossCapacities() {
+        int[] indexes = {0, 63, 64, 640, 6400, 64000};
+        SparseBitSet ascending = of(indexes);
+        SparseBitSet descending = new SparseBitSet();
+        for (int i = indexes.length - 1; i >= 0; --i) {
+            descending.set(indexes[i]);
+        }
+        // grows its arrays beyond the number of words, then merges
+        SparseBitSet large = of(1, 129, 257, 385, 513, 641, 769, 897);
+        SparseBitSet merged = new SparseBitSet().addAll(ascending);
+        SparseBitSet delta = large.addAll(ascending);
+        for (SparseBitSet set : new SparseBitSet[]{descending, merged, delta}) {
+            assertEquals(ascending, set);
+            assertEquals(set, ascending);
+            assertEquals(ascending.hashCode(), set.hashCode());
+        }
+        assertNotEquals(ascending, large);
+        assertNotEquals(ascending, of(0, 63, 64, 640, 6400));
+        assertEquals(new SparseBitSet(), new SparseBitSet().addAll(new SparseBitSet()));
+        assertEquals(new SparseBitSet().hashCode(), of().hashCode());
+    }
+}
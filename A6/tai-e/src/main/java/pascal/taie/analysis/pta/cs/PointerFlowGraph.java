@@ -23,13 +23,27 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The pointers in a cycle of the PFG always have identical points-to
+ * sets, so such cycles can be collapsed by {@link #mergeCycle(Collection)}:
+ * the pointers of a collapsed cycle share one points-to set, and edges
+ * are kept between their representatives only.
  */
 class PointerFlowGraph {
 
@@ -39,19 +53,160 @@ class PointerFlowGraph {
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
     /**
-     * Adds an edge (source -> target) to this PFG.
+     * Map from a merged pointer to its representative.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Map from a representative to all pointers it represents.
+     */
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Adds an edge (source -> target) to this PFG. The edge is added
+     * between the representatives of the given pointers.
      *
      * @return true if this PFG changed as a result of the call,
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        source = getRepresentative(source);
+        target = getRepresentative(target);
+        return source != target && successors.put(source, target);
     }
 
     /**
-     * @return successors of given pointer in the PFG.
+     * @return successors of given pointer in the PFG. The successors
+     * may be merged pointers, i.e., not representatives.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRepresentative(pointer));
+    }
+
+    /**
+     * @return the representative of given pointer, which is the pointer
+     * itself unless it has been merged into a cycle.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        Pointer rep = representatives.get(pointer);
+        if (rep == null) {
+            return pointer;
+        }
+        Pointer root = rep;
+        for (Pointer next; (next = representatives.get(root)) != null; ) {
+            root = next;
+        }
+        if (root != rep) {
+            // path compression
+            representatives.put(pointer, root);
+        }
+        return root;
+    }
+
+    /**
+     * @return all pointers represented by given representative,
+     * including the representative itself.
+     */
+    Set<Pointer> getMembersOf(Pointer rep) {
+        Set<Pointer> merged = members.get(rep);
+        return merged.isEmpty() ? Set.of(rep) : merged;
+    }
+
+    /**
+     * Finds the cycles reachable from given pointer by Tarjan's algorithm
+     * over the representatives.
+     *
+     * @return the strongly connected components (of representatives)
+     * that contain more than one pointer.
+     */
+    List<Set<Pointer>> findCyclesFrom(Pointer source) {
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> sccStack = new ArrayDeque<>();
+        Set<Pointer> onSCCStack = Sets.newSet();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> succIters = new ArrayDeque<>();
+        List<Set<Pointer>> cycles = new ArrayList<>();
+        source = getRepresentative(source);
+        indexes.put(source, 0);
+        lowLinks.put(source, 0);
+        sccStack.push(source);
+        onSCCStack.add(source);
+        stack.push(source);
+        succIters.push(successors.get(source).iterator());
+        while (!stack.isEmpty()) {
+            Pointer node = stack.peek();
+            Iterator<Pointer> succIter = succIters.peek();
+            if (succIter.hasNext()) {
+                Pointer succ = getRepresentative(succIter.next());
+                if (!indexes.containsKey(succ)) {
+                    int index = indexes.size();
+                    indexes.put(succ, index);
+                    lowLinks.put(succ, index);
+                    sccStack.push(succ);
+                    onSCCStack.add(succ);
+                    stack.push(succ);
+                    succIters.push(successors.get(succ).iterator());
+                } else if (onSCCStack.contains(succ)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                }
+            } else {
+                stack.pop();
+                succIters.pop();
+                int lowLink = lowLinks.get(node);
+                if (!stack.isEmpty()) {
+                    Pointer parent = stack.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLink));
+                }
+                if (lowLink == indexes.get(node)) {
+                    Set<Pointer> scc = Sets.newSet();
+                    Pointer p;
+                    do {
+                        p = sccStack.pop();
+                        onSCCStack.remove(p);
+                        scc.add(p);
+                    } while (p != node);
+                    if (scc.size() > 1) {
+                        cycles.add(scc);
+                    }
+                }
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Merges the pointers (representatives) of a cycle into one
+     * representative. All pointers of the cycle then share the points-to
+     * set of the representative, and the out-edges of the cycle are moved
+     * to the representative. The caller is responsible for the objects
+     * that were not in the points-to set of the representative.
+     *
+     * @return the representative of the merged cycle.
+     */
+    Pointer mergeCycle(Collection<Pointer> cycle) {
+        Pointer rep = cycle.iterator().next();
+        PointsToSet pointsToSet = rep.getPointsToSet();
+        Set<Pointer> succs = Sets.newSet();
+        for (Pointer p : cycle) {
+            succs.addAll(successors.get(p));
+            successors.removeAll(p);
+            if (p != rep) {
+                for (Pointer member : getMembersOf(p)) {
+                    member.setPointsToSet(pointsToSet);
+                    representatives.put(member, rep);
+                    members.put(rep, member);
+                }
+                members.removeAll(p);
+            }
+        }
+        members.put(rep, rep);
+        for (Pointer succ : succs) {
+            succ = getRepresentative(succ);
+            if (succ != rep) {
+                successors.put(rep, succ);
+            }
+        }
+        return rep;
     }
 }
@@ -25,8 +25,8 @@ package pascal.taie.analysis.pta.cs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.DispatchTable;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.PointerAnalysisResultImpl;
@@ -54,8 +54,12 @@ import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 class Solver {
 
@@ -75,6 +79,11 @@ class Solver {
 
     private WorkList workList;
 
+    /**
+     * PFG edges (between representatives) that have triggered cycle detection.
+     */
+    private MultiMap<Pointer, Pointer> checkedEdges;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -94,6 +103,7 @@ class Solver {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph();
         workList = new WorkList();
+        checkedEdges = Maps.newMultiMap();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
         JMethod main = World.get().getMainMethod();
@@ -208,50 +218,63 @@ class Solver {
         // TODO - finish me
         while(!workList.isEmpty()) {
             WorkList.Entry workSet = workList.pollEntry();
-            Pointer n = workSet.pointer();
+            Pointer n = pointerFlowGraph.getRepresentative(workSet.pointer());
             PointsToSet pts = workSet.pointsToSet();
             PointsToSet delta = propagate(n, pts);
 
-            if(n instanceof CSVar csVar) {
-                Context ctx = csVar.getContext();
-                Var var = csVar.getVar();
-
-                for(CSObj csObj:delta) {
-                    // store field
-                    // x.f=y
-                    for(StoreField storeField : var.getStoreFields()) {
-                        Pointer left = csManager.getInstanceField(csObj, storeField.getFieldRef().resolve());
-                        Pointer right = csManager.getCSVar(ctx, storeField.getRValue());
-                        addPFGEdge(right, left);
+            if(!delta.isEmpty()) {
+                for(Pointer member : pointerFlowGraph.getMembersOf(n)) {
+                    if(member instanceof CSVar csVar) {
+                        processVar(csVar, delta);
                     }
+                }
+                detectCycles(n);
+            }
+        }
+    }
 
-                    // load field
-                    // y=x.f
-                    for(LoadField loadField : var.getLoadFields()) {
-                        Pointer left = csManager.getCSVar(ctx, loadField.getLValue());
-                        Pointer right = csManager.getInstanceField(csObj, loadField.getFieldRef().resolve());
-                        addPFGEdge(right, left);
-                    }
+    /**
+     * Processes the field/array accesses and instance calls on given
+     * variable for the new objects it points to.
+     */
+    private void processVar(CSVar csVar, PointsToSet delta) {
+        Context ctx = csVar.getContext();
+        Var var = csVar.getVar();
+
+        for(CSObj csObj:delta) {
+            // store field
+            // x.f=y
+            for(StoreField storeField : var.getStoreFields()) {
+                Pointer left = csManager.getInstanceField(csObj, storeField.getFieldRef().resolve());
+                Pointer right = csManager.getCSVar(ctx, storeField.getRValue());
+                addPFGEdge(right, left);
+            }
 
-                    // store array
-                    // x[*]=y
-                    for(StoreArray storeArray : var.getStoreArrays()) {
-                        Pointer left = csManager.getArrayIndex(csObj);
-                        Pointer right = csManager.getCSVar(ctx, storeArray.getRValue());
-                        addPFGEdge(right, left);
-                    }
+            // load field
+            // y=x.f
+            for(LoadField loadField : var.getLoadFields()) {
+                Pointer left = csManager.getCSVar(ctx, loadField.getLValue());
+                Pointer right = csManager.getInstanceField(csObj, loadField.getFieldRef().resolve());
+                addPFGEdge(right, left);
+            }
 
-                    // load array
-                    // y=x[*]
-                    for(LoadArray loadArray : var.getLoadArrays()) {
-                        Pointer left = csManager.getCSVar(ctx, loadArray.getLValue());
-                        Pointer right = csManager.getArrayIndex(csObj);
-                        addPFGEdge(right, left);
-                    }
+            // store array
+            // x[*]=y
+            for(StoreArray storeArray : var.getStoreArrays()) {
+                Pointer left = csManager.getArrayIndex(csObj);
+                Pointer right = csManager.getCSVar(ctx, storeArray.getRValue());
+                addPFGEdge(right, left);
+            }
 
-                    processCall(csVar, csObj);
-                }
+            // load array
+            // y=x[*]
+            for(LoadArray loadArray : var.getLoadArrays()) {
+                Pointer left = csManager.getCSVar(ctx, loadArray.getLValue());
+                Pointer right = csManager.getArrayIndex(csObj);
+                addPFGEdge(right, left);
             }
+
+            processCall(csVar, csObj);
         }
     }
 
@@ -280,6 +303,69 @@ class Solver {
         return delta;
     }
 
+    /**
+     * Lazy cycle detection: if a successor of the pointer already has the
+     * same points-to set as the pointer after propagation, the new objects
+     * have probably come back around a cycle, so the cycles reachable from
+     * the pointer are searched and collapsed. Each edge triggers the search
+     * at most once.
+     */
+    private void detectCycles(Pointer pointer) {
+        PointsToSet pts = pointer.getPointsToSet();
+        boolean suspicious = false;
+        for(Pointer succ:pointerFlowGraph.getSuccsOf(pointer)) {
+            succ = pointerFlowGraph.getRepresentative(succ);
+            if(succ != pointer
+                    && succ.getPointsToSet().size() == pts.size()
+                    && succ.getPointsToSet().getObjects().equals(pts.getObjects())
+                    && checkedEdges.put(pointer, succ)) {
+                suspicious = true;
+            }
+        }
+        if(suspicious) {
+            for(Set<Pointer> cycle:pointerFlowGraph.findCyclesFrom(pointer)) {
+                collapse(cycle);
+            }
+        }
+    }
+
+    /**
+     * Collapses a cycle of the PFG into one representative, and processes
+     * the objects that each pointer of the cycle has not seen yet.
+     */
+    private void collapse(Set<Pointer> cycle) {
+        PointsToSet union = PointsToSetFactory.make();
+        for(Pointer p:cycle) {
+            union.addAll(p.getPointsToSet());
+        }
+        Map<Pointer, PointsToSet> deltas = Maps.newMap();
+        Map<Pointer, List<Pointer>> members = Maps.newMap();
+        for(Pointer p:cycle) {
+            PointsToSet delta = PointsToSetFactory.make();
+            PointsToSet target = p.getPointsToSet();
+            for(CSObj obj:union) {
+                if(target.addObject(obj)) {
+                    delta.addObject(obj);
+                }
+            }
+            if(!delta.isEmpty()) {
+                deltas.put(p, delta);
+                members.put(p, List.copyOf(pointerFlowGraph.getMembersOf(p)));
+            }
+        }
+        Pointer rep = pointerFlowGraph.mergeCycle(cycle);
+        deltas.forEach((p, delta) -> {
+            for(Pointer member:members.get(p)) {
+                if(member instanceof CSVar csVar) {
+                    processVar(csVar, delta);
+                }
+            }
+            for(Pointer succ:pointerFlowGraph.getSuccsOf(rep)) {
+                workList.addEntry(succ, delta);
+            }
+        });
+    }
+
     /**
      * Processes instance calls when points-to set of the receiver variable changes.
      *
@@ -342,7 +428,7 @@ class Solver {
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
         Type type = recv != null ? recv.getObject().getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        return DispatchTable.resolveCallee(type, callSite);
     }
 
     PointerAnalysisResult getResult() {
@@ -23,7 +23,13 @@
 package pascal.taie.analysis.pta;
 
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.cs.CSPTA;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class CSPTATest {
 
@@ -93,4 +99,32 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    /**
+     * Checks that the cycle a1 -> a3 -> a2 -> a1 in A.cycle() of Assign2
+     * is collapsed, i.e., its variables share one points-to set, and that
+     * the dumped points-to sets are unchanged by the collapsing.
+     */
+    @Test
+    public void testCycle() {
+        Tests.testCSPTA(DIR, "Assign2");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        CSVar a1 = getCSVar(result, "a1");
+        assertSame(a1.getPointsToSet(), getCSVar(result, "a2").getPointsToSet());
+        assertSame(a1.getPointsToSet(), getCSVar(result, "a3").getPointsToSet());
+        assertNotSame(a1.getPointsToSet(),
+                getCSVar(result, "temp$0").getPointsToSet());
+    }
+
+    /**
+     * @return the variable of given name in A.cycle() of Assign2.
+     */
+    private static CSVar getCSVar(PointerAnalysisResult result, String name) {
+        return result.getCSVars()
+                .stream()
+                .filter(v -> v.getVar().getName().equals(name) &&
+                        v.getVar().getMethod().getName().equals("cycle"))
+                .findFirst()
+                .orElseThrow();
+    }
 }
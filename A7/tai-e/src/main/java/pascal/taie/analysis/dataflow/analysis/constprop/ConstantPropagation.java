@@ -56,33 +56,54 @@ public class ConstantPropagation extends
 
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
-        // TODO - finish me
-        return null;
+        // parameters may hold any values
+        CPFact boundary = new CPFact();
+        IR ir = cfg.getIR();
+        for (Var param : ir.getParams()) {
+            if (canHoldInt(param)) {
+                boundary.update(param, Value.getNAC());
+            }
+        }
+        return boundary;
     }
 
     @Override
     public CPFact newInitialFact() {
-        // TODO - finish me
-        return null;
+        return new CPFact();
     }
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
-        // TODO - finish me
+        fact.forEach((var, value) ->
+                target.update(var, meetValue(value, target.get(var))));
     }
 
     /**
      * Meets two Values.
      */
     public Value meetValue(Value v1, Value v2) {
-        // TODO - finish me
-        return null;
+        if (v1.isNAC() || v2.isNAC()) {
+            return Value.getNAC();
+        } else if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.getConstant() == v2.getConstant()) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
     }
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var lhs && canHoldInt(lhs)) {
+            CPFact newOut = in.copy();
+            newOut.update(lhs, evaluate(def.getRValue(), in));
+            return out.copyFrom(newOut);
+        }
+        return out.copyFrom(in);
     }
 
     /**
@@ -111,7 +132,68 @@ public class ConstantPropagation extends
      * @return the resulting {@link Value}
      */
     public static Value evaluate(Exp exp, CPFact in) {
-        // TODO - finish me
-        return null;
+        if (exp instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (exp instanceof Var var) {
+            return in.get(var);
+        } else if (exp instanceof BinaryExp binary) {
+            Value v1 = in.get(binary.getOperand1());
+            Value v2 = in.get(binary.getOperand2());
+            if (v2.isConstant() && v2.getConstant() == 0 &&
+                    (binary.getOperator() == ArithmeticExp.Op.DIV ||
+                            binary.getOperator() == ArithmeticExp.Op.REM)) {
+                // division by zero never completes normally
+                return Value.getUndef();
+            }
+            if (v1.isConstant() && v2.isConstant()) {
+                return Value.makeConstant(evaluate(binary.getOperator(),
+                        v1.getConstant(), v2.getConstant()));
+            }
+            if (v1.isNAC() || v2.isNAC()) {
+                return Value.getNAC();
+            }
+            return Value.getUndef();
+        }
+        // other expressions, e.g., field/array accesses and method calls,
+        // may hold any values
+        return Value.getNAC();
+    }
+
+    /**
+     * Evaluates a binary operator on two int constants.
+     */
+    private static int evaluate(BinaryExp.Op op, int i1, int i2) {
+        if (op instanceof ArithmeticExp.Op arith) {
+            return switch (arith) {
+                case ADD -> i1 + i2;
+                case SUB -> i1 - i2;
+                case MUL -> i1 * i2;
+                case DIV -> i1 / i2;
+                case REM -> i1 % i2;
+            };
+        } else if (op instanceof ConditionExp.Op cond) {
+            boolean result = switch (cond) {
+                case EQ -> i1 == i2;
+                case NE -> i1 != i2;
+                case LT -> i1 < i2;
+                case GT -> i1 > i2;
+                case LE -> i1 <= i2;
+                case GE -> i1 >= i2;
+            };
+            return result ? 1 : 0;
+        } else if (op instanceof ShiftExp.Op shift) {
+            return switch (shift) {
+                case SHL -> i1 << i2;
+                case SHR -> i1 >> i2;
+                case USHR -> i1 >>> i2;
+            };
+        } else if (op instanceof BitwiseExp.Op bitwise) {
+            return switch (bitwise) {
+                case OR -> i1 | i2;
+                case AND -> i1 & i2;
+                case XOR -> i1 ^ i2;
+            };
+        }
+        throw new AnalysisException("Unexpected binary operator: " + op);
     }
 }
@@ -0,0 +1,256 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of abstract heap cells for alias-aware constant propagation.
+ * <p>
+ * Each cell, i.e., an instance field of an abstract object, a static field,
+ * or an element of an abstract array object, holds the meet of the values
+ * of all stores into it. Then the value of a load is the meet of the cells
+ * pointed to by its base, and the loads do not need to scan the aliased
+ * stores in the program.
+ * <p>
+ * As the values of variables only descend during the analysis, meeting
+ * the new value of a store into the cells gives the same result as
+ * recomputing the meet over the current values of all stores.
+ * <p>
+ * The loads that may read each cell are indexed once from the result of
+ * pointer analysis, so that when a store changes some cells, only the
+ * loads that depend on these cells need to be processed again.
+ */
+class HeapCells {
+
+    private final PointerAnalysisResult pta;
+
+    private final ConstantPropagation cp;
+
+    /**
+     * Values of instance fields.
+     */
+    private final Map<Pair<Obj, JField>, Value> instanceFields = Maps.newMap();
+
+    /**
+     * Values of static fields.
+     */
+    private final Map<JField, Value> staticFields = Maps.newMap();
+
+    /**
+     * Values of array elements.
+     */
+    private final Map<Obj, ArrayCells> arrays = Maps.newMap();
+
+    /**
+     * Loads that may read each instance field cell.
+     */
+    private final MultiMap<Pair<Obj, JField>, Stmt> instanceFieldLoads = Maps.newMultiMap();
+
+    /**
+     * Loads that may read each static field.
+     */
+    private final MultiMap<JField, Stmt> staticFieldLoads = Maps.newMultiMap();
+
+    /**
+     * Loads that may read the elements of each array object.
+     */
+    private final MultiMap<Obj, Stmt> arrayLoads = Maps.newMultiMap();
+
+    HeapCells(PointerAnalysisResult pta, ConstantPropagation cp) {
+        this.pta = pta;
+        this.cp = cp;
+        pta.getCallGraph().reachableMethods().forEach(this::indexLoads);
+    }
+
+    private void indexLoads(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolve();
+                if (load.isStatic()) {
+                    staticFieldLoads.put(field, load);
+                } else {
+                    for (Obj obj : pta.getPointsToSet(getBase(load))) {
+                        instanceFieldLoads.put(new Pair<>(obj, field), load);
+                    }
+                }
+            } else if (stmt instanceof LoadArray load) {
+                for (Obj array : pta.getPointsToSet(load.getArrayAccess().getBase())) {
+                    arrayLoads.put(array, load);
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets the value of a field store into the cells of the field.
+     *
+     * @return the loads that may read the changed cells.
+     */
+    Set<Stmt> storeField(FieldStmt<?, ?> store, Value value) {
+        JField field = store.getFieldRef().resolve();
+        Set<Stmt> affected = Sets.newHybridSet();
+        if (store.isStatic()) {
+            if (meetInto(staticFields, field, value)) {
+                affected.addAll(staticFieldLoads.get(field));
+            }
+        } else {
+            for (Obj obj : pta.getPointsToSet(getBase(store))) {
+                Pair<Obj, JField> cell = new Pair<>(obj, field);
+                if (meetInto(instanceFields, cell, value)) {
+                    affected.addAll(instanceFieldLoads.get(cell));
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return the value of a field load, i.e., the meet of the cells
+     * that may be read by the load.
+     */
+    Value loadField(FieldStmt<?, ?> load) {
+        JField field = load.getFieldRef().resolve();
+        if (load.isStatic()) {
+            return staticFields.getOrDefault(field, Value.getUndef());
+        }
+        Value result = Value.getUndef();
+        for (Obj obj : pta.getPointsToSet(getBase(load))) {
+            Value value = instanceFields.get(new Pair<>(obj, field));
+            if (value != null) {
+                result = cp.meetValue(result, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Meets the value of an array store into the cells of the arrays
+     * pointed to by base.
+     *
+     * @return the loads that may read the changed cells.
+     */
+    Set<Stmt> storeArray(Var base, Value index, Value value) {
+        Set<Stmt> affected = Sets.newHybridSet();
+        if (index.isUndef()) {
+            // the store is not executable yet
+            return affected;
+        }
+        for (Obj array : pta.getPointsToSet(base)) {
+            if (arrays.computeIfAbsent(array, o -> new ArrayCells())
+                    .store(index, value)) {
+                affected.addAll(arrayLoads.get(array));
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return the value of an array load, i.e., the meet of the cells
+     * that may be read by the load.
+     */
+    Value loadArray(Var base, Value index) {
+        Value result = Value.getUndef();
+        if (index.isUndef()) {
+            return result;
+        }
+        for (Obj array : pta.getPointsToSet(base)) {
+            ArrayCells cells = arrays.get(array);
+            if (cells != null) {
+                result = cp.meetValue(result, cells.load(index));
+            }
+        }
+        return result;
+    }
+
+    private static Var getBase(FieldStmt<?, ?> stmt) {
+        return ((InstanceFieldAccess) stmt.getFieldAccess()).getBase();
+    }
+
+    private <K> boolean meetInto(Map<K, Value> cells, K key, Value value) {
+        Value oldValue = cells.getOrDefault(key, Value.getUndef());
+        Value newValue = cp.meetValue(oldValue, value);
+        if (!newValue.equals(oldValue)) {
+            cells.put(key, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cells of an abstract array object. The elements stored at
+     * constant indexes are kept separately, and the stores at NAC
+     * indexes may write any element.
+     */
+    private class ArrayCells {
+
+        private final Map<Integer, Value> elements = Maps.newHybridMap();
+
+        private Value anyElement = Value.getUndef();
+
+        private boolean store(Value index, Value value) {
+            if (index.isConstant()) {
+                return meetInto(elements, index.getConstant(), value);
+            }
+            Value newValue = cp.meetValue(anyElement, value);
+            if (!newValue.equals(anyElement)) {
+                anyElement = newValue;
+                return true;
+            }
+            return false;
+        }
+
+        private Value load(Value index) {
+            Value result = anyElement;
+            if (index.isConstant()) {
+                Value element = elements.get(index.getConstant());
+                if (element != null) {
+                    result = cp.meetValue(result, element);
+                }
+            } else {
+                for (Value element : elements.values()) {
+                    result = cp.meetValue(result, element);
+                }
+            }
+            return result;
+        }
+    }
+}
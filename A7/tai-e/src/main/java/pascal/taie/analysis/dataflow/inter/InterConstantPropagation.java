@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -34,12 +35,20 @@ import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArrayAccess;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -50,6 +59,12 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Values of the abstract heap cells, which are used to handle
+     * field and array accesses when option alias-aware is set.
+     */
+    private HeapCells heapCells;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -59,7 +74,9 @@ public class InterConstantPropagation extends
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
         PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
+        if (getOptions().getBoolean("alias-aware")) {
+            heapCells = new HeapCells(pta, cp);
+        }
     }
 
     @Override
@@ -85,37 +102,96 @@ public class InterConstantPropagation extends
 
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        // the value of the result variable is given by the return edges
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (heapCells == null) {
+            return cp.transferNode(stmt, in, out);
+        }
+        if (stmt instanceof StoreField store) {
+            if (ConstantPropagation.canHoldInt(store.getRValue())) {
+                solver.addToWorkList(heapCells.storeField(
+                        store, in.get(store.getRValue())));
+            }
+            return out.copyFrom(in);
+        } else if (stmt instanceof StoreArray store) {
+            if (ConstantPropagation.canHoldInt(store.getRValue())) {
+                ArrayAccess access = store.getArrayAccess();
+                solver.addToWorkList(heapCells.storeArray(access.getBase(),
+                        in.get(access.getIndex()), in.get(store.getRValue())));
+            }
+            return out.copyFrom(in);
+        } else if (stmt instanceof LoadField load) {
+            return transferLoad(load.getLValue(), in, out,
+                    () -> heapCells.loadField(load));
+        } else if (stmt instanceof LoadArray load) {
+            ArrayAccess access = load.getArrayAccess();
+            return transferLoad(load.getLValue(), in, out,
+                    () -> heapCells.loadArray(access.getBase(),
+                            in.get(access.getIndex())));
+        }
+        return cp.transferNode(stmt, in, out);
+    }
+
+    /**
+     * Transfer function for loads, whose values are given by heap cells.
+     */
+    private static boolean transferLoad(Var lhs, CPFact in, CPFact out,
+                                        Supplier<Value> loadedValue) {
+        CPFact newOut = in.copy();
+        if (ConstantPropagation.canHoldInt(lhs)) {
+            newOut.update(lhs, loadedValue.get());
+        }
+        return out.copyFrom(newOut);
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        // kill the result variable, whose value flows from the callees
+        Var result = ((Invoke) edge.getSource()).getResult();
+        if (result == null) {
+            return out;
+        }
+        CPFact fact = out.copy();
+        fact.remove(result);
+        return fact;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        // pass the values of arguments to parameters
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        CPFact fact = newInitialFact();
+        for (int i = 0; i < params.size(); ++i) {
+            Var param = params.get(i);
+            if (ConstantPropagation.canHoldInt(param)) {
+                fact.update(param, callSiteOut.get(invokeExp.getArg(i)));
+            }
+        }
+        return fact;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        // pass the meet of the values of return variables to the result
+        CPFact fact = newInitialFact();
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        if (result != null && ConstantPropagation.canHoldInt(result)) {
+            Value value = Value.getUndef();
+            for (Var returnVar : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(returnVar));
+            }
+            fact.update(result, value);
+        }
+        return fact;
     }
 }
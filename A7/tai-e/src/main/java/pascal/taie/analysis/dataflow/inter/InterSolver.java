@@ -26,6 +26,7 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.util.collection.SetQueue;
 
+import java.util.Collection;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -59,10 +60,38 @@ class InterSolver<Method, Node, Fact> {
     }
 
     private void initialize() {
-        // TODO - finish me
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        icfg.entryMethods().map(icfg::getEntryOf).forEach(entry -> {
+            result.setInFact(entry, analysis.newBoundaryFact(entry));
+            result.setOutFact(entry, analysis.newBoundaryFact(entry));
+        });
     }
 
     private void doSolve() {
-        // TODO - finish me
+        workList = new SetQueue<>();
+        workList.addAll(icfg.getNodes());
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            icfg.getInEdgesOf(node).forEach(edge -> analysis.meetInto(
+                    analysis.transferEdge(edge, result.getOutFact(edge.getSource())),
+                    in));
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                workList.addAll(icfg.getSuccsOf(node));
+            }
+        }
+    }
+
+    /**
+     * Adds nodes to the work list. The analysis can call this method
+     * to process again the nodes whose results depend on facts other than
+     * the ones flowing along ICFG edges, e.g., the loads which depend on
+     * the stores of aliased heap locations.
+     */
+    void addToWorkList(Collection<Node> nodes) {
+        workList.addAll(nodes);
     }
 }
@@ -43,19 +43,24 @@ public class _2CallSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Context context = callSite.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1), callSite.getCallSite()) :
+                ListContext.make(callSite.getCallSite());
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return selectContext(callSite, callee);
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        Context context = method.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1)) :
+                getEmptyContext();
     }
 }
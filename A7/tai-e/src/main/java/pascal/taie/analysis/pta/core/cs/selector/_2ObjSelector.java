@@ -42,19 +42,24 @@ public class _2ObjSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return callSite.getContext();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Context context = recv.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1), recv.getObject()) :
+                ListContext.make(recv.getObject());
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        Context context = method.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1)) :
+                getEmptyContext();
     }
 }
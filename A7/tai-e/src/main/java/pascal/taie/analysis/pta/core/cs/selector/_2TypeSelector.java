@@ -43,19 +43,25 @@ public class _2TypeSelector implements ContextSelector {
 
     @Override
     public Context selectContext(CSCallSite callSite, JMethod callee) {
-        // TODO - finish me
-        return null;
+        return callSite.getContext();
     }
 
     @Override
     public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
-        // TODO - finish me
-        return null;
+        Context context = recv.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1),
+                        recv.getObject().getContainerType()) :
+                ListContext.make(recv.getObject().getContainerType());
     }
 
     @Override
     public Context selectHeapContext(CSMethod method, Obj obj) {
-        // TODO - finish me
-        return null;
+        Context context = method.getContext();
+        int length = context.getLength();
+        return length > 0 ?
+                ListContext.make(context.getElementAt(length - 1)) :
+                getEmptyContext();
     }
 }
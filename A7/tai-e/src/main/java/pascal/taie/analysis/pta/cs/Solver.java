@@ -111,7 +111,10 @@ class Solver {
      * Processes new reachable context-sensitive method.
      */
     private void addReachable(CSMethod csMethod) {
-        // TODO - finish me
+        if (callGraph.addReachableMethod(csMethod)) {
+            StmtProcessor stmtProcessor = new StmtProcessor(csMethod);
+            csMethod.getMethod().getIR().forEach(stmt -> stmt.accept(stmtProcessor));
+        }
     }
 
     /**
@@ -128,22 +131,98 @@ class Solver {
             this.context = csMethod.getContext();
         }
 
-        // TODO - if you choose to implement addReachable()
-        //  via visitor pattern, then finish me
+        @Override
+        public Void visit(New stmt) {
+            Obj obj = heapModel.getObj(stmt);
+            Context heapContext = contextSelector.selectHeapContext(csMethod, obj);
+            workList.addEntry(csManager.getCSVar(context, stmt.getLValue()),
+                    PointsToSetFactory.make(csManager.getCSObj(heapContext, obj)));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                    csManager.getCSVar(context, stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getStaticField(field),
+                        csManager.getCSVar(context, stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(csManager.getCSVar(context, stmt.getRValue()),
+                        csManager.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                JMethod callee = resolveCallee(null, stmt);
+                CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                Context calleeContext = contextSelector.selectContext(csCallSite, callee);
+                processCallEdge(csCallSite, csManager.getCSMethod(calleeContext, callee));
+            }
+            return null;
+        }
     }
 
     /**
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO - finish me
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet pts = source.getPointsToSet();
+            if (!pts.isEmpty()) {
+                workList.addEntry(target, pts);
+            }
+        }
     }
 
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
-        // TODO - finish me
+        while (!workList.isEmpty()) {
+            WorkList.Entry entry = workList.pollEntry();
+            PointsToSet delta = propagate(entry.pointer(), entry.pointsToSet());
+            if (entry.pointer() instanceof CSVar csVar && !delta.isEmpty()) {
+                Context context = csVar.getContext();
+                Var var = csVar.getVar();
+                for (CSObj csObj : delta) {
+                    for (StoreField store : var.getStoreFields()) {
+                        InstanceField field = csManager.getInstanceField(
+                                csObj, store.getFieldRef().resolve());
+                        addPFGEdge(csManager.getCSVar(context, store.getRValue()), field);
+                    }
+                    for (LoadField load : var.getLoadFields()) {
+                        InstanceField field = csManager.getInstanceField(
+                                csObj, load.getFieldRef().resolve());
+                        addPFGEdge(field, csManager.getCSVar(context, load.getLValue()));
+                    }
+                    ArrayIndex array = csManager.getArrayIndex(csObj);
+                    for (StoreArray store : var.getStoreArrays()) {
+                        addPFGEdge(csManager.getCSVar(context, store.getRValue()), array);
+                    }
+                    for (LoadArray load : var.getLoadArrays()) {
+                        addPFGEdge(array, csManager.getCSVar(context, load.getLValue()));
+                    }
+                    processCall(csVar, csObj);
+                }
+            }
+        }
     }
 
     /**
@@ -151,8 +230,18 @@ class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        // TODO - finish me
-        return null;
+        PointsToSet delta = PointsToSetFactory.make();
+        PointsToSet pts = pointer.getPointsToSet();
+        for (CSObj csObj : pointsToSet) {
+            if (pts.addObject(csObj)) {
+                delta.addObject(csObj);
+            }
+        }
+        if (!delta.isEmpty()) {
+            pointerFlowGraph.getSuccsOf(pointer)
+                    .forEach(succ -> workList.addEntry(succ, delta));
+        }
+        return delta;
     }
 
     /**
@@ -162,7 +251,48 @@ class Solver {
      * @param recvObj set of new discovered objects pointed by the variable.
      */
     private void processCall(CSVar recv, CSObj recvObj) {
-        // TODO - finish me
+        Context context = recv.getContext();
+        for (Invoke callSite : recv.getVar().getInvokes()) {
+            JMethod callee = resolveCallee(recvObj, callSite);
+            if (callee == null) {
+                continue;
+            }
+            CSCallSite csCallSite = csManager.getCSCallSite(context, callSite);
+            Context calleeContext = contextSelector.selectContext(
+                    csCallSite, recvObj, callee);
+            workList.addEntry(
+                    csManager.getCSVar(calleeContext, callee.getIR().getThis()),
+                    PointsToSetFactory.make(recvObj));
+            processCallEdge(csCallSite, csManager.getCSMethod(calleeContext, callee));
+        }
+    }
+
+    /**
+     * Adds a call edge to the call graph, and if the edge is new,
+     * adds the PFG edges for passing arguments and return values.
+     */
+    private void processCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        Invoke callSite = csCallSite.getCallSite();
+        CallKind kind = CallGraphs.getCallKind(callSite);
+        if (!callGraph.addEdge(new Edge<>(kind, csCallSite, csCallee))) {
+            return;
+        }
+        addReachable(csCallee);
+        Context callerContext = csCallSite.getContext();
+        Context calleeContext = csCallee.getContext();
+        JMethod callee = csCallee.getMethod();
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        for (int i = 0; i < invokeExp.getArgCount(); ++i) {
+            addPFGEdge(csManager.getCSVar(callerContext, invokeExp.getArg(i)),
+                    csManager.getCSVar(calleeContext, callee.getIR().getParam(i)));
+        }
+        Var result = callSite.getResult();
+        if (result != null) {
+            for (Var ret : callee.getIR().getReturnVars()) {
+                addPFGEdge(csManager.getCSVar(calleeContext, ret),
+                        csManager.getCSVar(callerContext, result));
+            }
+        }
     }
 
     /**
@@ -83,4 +83,13 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    /**
+     * The first load of the field is reached before the store, so it is
+     * correct only if the store puts the load back to the work list.
+     */
+    @Test
+    public void testLoadBeforeStore() {
+        test("LoadBeforeStore");
+    }
 }
@@ -0,0 +1,21 @@
+class LoadBeforeStore {
+
+    public static void main(String[] args) {
+        Cell c = new Cell();
+        int x = c.get();
+        c.set(7);
+        int y = c.get();
+    }
+
+    static class Cell {
+        int f;
+
+        int get() {
+            return f;
+        }
+
+        void set(int f) {
+            this.f = f;
+        }
+    }
+}